@@ -0,0 +1,65 @@
+package com.thekade.nopolin.api_gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A response that is not connected to any client: status and headers are kept
+ * as set and the body is collected into a byte array, so the rest of the
+ * filter chain can route a request whose result is then shared.
+ */
+public class BufferingServerHttpResponse extends AbstractServerHttpResponse {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private volatile byte[] body = EMPTY;
+
+    public BufferingServerHttpResponse(DataBufferFactory bufferFactory) {
+        super(bufferFactory);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getNativeResponse() {
+        return (T) this;
+    }
+
+    @Override
+    protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> content) {
+        return DataBufferUtils.join(content)
+                .doOnNext(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    body = bytes;
+                })
+                .then();
+    }
+
+    @Override
+    protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> content) {
+        return writeWithInternal(Flux.from(content).concatMap(Flux::from));
+    }
+
+    @Override
+    protected void applyStatusCode() {
+    }
+
+    @Override
+    protected void applyHeaders() {
+    }
+
+    @Override
+    protected void applyCookies() {
+    }
+}
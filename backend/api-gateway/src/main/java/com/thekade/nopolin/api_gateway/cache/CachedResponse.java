@@ -0,0 +1,53 @@
+package com.thekade.nopolin.api_gateway.cache;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A fully buffered upstream response. {@code varyValues} holds, for each
+ * header the response varies on, the value the originating request sent (null
+ * when absent); another request may reuse the response only if it sends the
+ * same values. Times are ticker nanos; an entry that is not {@code storable}
+ * may still be handed to requests coalesced onto it when it is
+ * {@code shareable}.
+ */
+public record CachedResponse(
+        String key,
+        int status,
+        HttpHeaders headers,
+        byte[] body,
+        Map<String, String> varyValues,
+        boolean shareable,
+        boolean storable,
+        long storedAt,
+        long freshUntil,
+        long staleUntil) {
+
+    public boolean isFresh(long now) {
+        return now - freshUntil < 0;
+    }
+
+    public boolean isUsable(long now) {
+        return now - staleUntil < 0;
+    }
+
+    public long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1_000_000_000L);
+    }
+
+    /** Whether a request with these headers selects this response, per its {@code Vary}. */
+    public boolean matches(HttpHeaders requestHeaders) {
+        for (Map.Entry<String, String> vary : varyValues.entrySet()) {
+            if (!Objects.equals(vary.getValue(), headerValue(requestHeaders, vary.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String headerValue(HttpHeaders headers, String name) {
+        return headers.containsKey(name) ? String.join(",", headers.getOrEmpty(name)) : null;
+    }
+}
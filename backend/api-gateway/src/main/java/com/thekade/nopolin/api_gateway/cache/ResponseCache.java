@@ -0,0 +1,167 @@
+package com.thekade.nopolin.api_gateway.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * The response cache of one route. Entries are kept until their stale window
+ * ends, bounded by count. Requests for a key that is already being fetched
+ * wait for that fetch instead of starting their own; the fetch runs detached
+ * from the request that started it, so it completes and fills the cache even
+ * if that client goes away.
+ *
+ * <p>Keys are two-level: the filter looks up which headers the last response
+ * for a base key varied on, then looks up the variant for the request's values
+ * of those headers.
+ */
+public class ResponseCache {
+
+    private final String routeId;
+    private final Ticker ticker;
+    private final Cache<String, CachedResponse> entries;
+    private final Cache<String, List<String>> varyNames;
+    private final Map<String, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public ResponseCache(String routeId, long maxEntries, Ticker ticker) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.routeId = routeId;
+        this.ticker = ticker;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return Math.max(0, value.staleUntil() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.varyNames = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long now() {
+        return ticker.read();
+    }
+
+    /** Headers the last stored response for this base key varied on; empty if none is known. */
+    public List<String> varyNames(String baseKey) {
+        List<String> names = varyNames.getIfPresent(baseKey);
+        return names != null ? names : List.of();
+    }
+
+    /** @return the entry if it is still fresh or within its stale window, counting a hit */
+    public CachedResponse lookup(String key) {
+        CachedResponse cached = entries.getIfPresent(key);
+        long now = now();
+        if (cached == null || !cached.isUsable(now)) {
+            return null;
+        }
+        (cached.isFresh(now) ? hits : staleHits).increment();
+        return cached;
+    }
+
+    /**
+     * The response for {@code key}: the fetch already in progress if there is
+     * one, otherwise a new fetch from {@code loader}.
+     */
+    public Mono<CachedResponse> load(String key, String baseKey, Supplier<Mono<CachedResponse>> loader) {
+        return join(key, baseKey, loader, true);
+    }
+
+    /** Starts a background fetch for a stale entry unless one is already running. */
+    public void revalidate(String key, String baseKey, Supplier<Mono<CachedResponse>> loader) {
+        if (!inFlight.containsKey(key)) {
+            join(key, baseKey, loader, false);
+        }
+    }
+
+    private Mono<CachedResponse> join(String key, String baseKey, Supplier<Mono<CachedResponse>> loader,
+            boolean counted) {
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Mono<CachedResponse> pending = sink.asMono();
+        Mono<CachedResponse> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            if (counted) {
+                coalesced.increment();
+            }
+            return existing;
+        }
+        if (counted) {
+            misses.increment();
+        }
+        Mono.defer(loader)
+                .doOnNext(response -> store(baseKey, response))
+                .doFinally(signal -> inFlight.remove(key, pending))
+                .subscribe(sink::tryEmitValue, sink::tryEmitError, sink::tryEmitEmpty);
+        return pending;
+    }
+
+    private void store(String baseKey, CachedResponse response) {
+        if (!response.storable()) {
+            return;
+        }
+        List<String> names = List.copyOf(response.varyValues().keySet());
+        if (!names.equals(varyNames.getIfPresent(baseKey))) {
+            varyNames.put(baseKey, names);
+        }
+        entries.put(response.key(), response);
+    }
+
+    public long entryCount() {
+        return entries.estimatedSize();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long staleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,51 @@
+package com.thekade.nopolin.api_gateway.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the hit, miss and size meters of every route's response cache. A
+ * route refresh replaces the cache and its meters.
+ */
+@Component
+public class ResponseCacheRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    public ResponseCacheRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public synchronized void register(ResponseCache cache) {
+        String routeId = cache.getRouteId();
+        List<Meter> previous = meters.remove(routeId);
+        if (previous != null) {
+            previous.forEach(meterRegistry::remove);
+        }
+        meters.put(routeId, List.of(
+                requests(cache, "hit", ResponseCache::hitCount),
+                requests(cache, "stale", ResponseCache::staleHitCount),
+                requests(cache, "miss", ResponseCache::missCount),
+                requests(cache, "coalesced", ResponseCache::coalescedCount),
+                Gauge.builder("gateway.cache.entries", cache, ResponseCache::entryCount)
+                        .tag("route", routeId)
+                        .register(meterRegistry)));
+    }
+
+    private Meter requests(ResponseCache cache, String outcome, ToDoubleFunction<ResponseCache> count) {
+        return FunctionCounter.builder("gateway.cache.requests", cache, count)
+                .tag("route", cache.getRouteId())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,107 @@
+package com.thekade.nopolin.api_gateway.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests to one route while fewer than the learned limit are in
+ * flight. Part of the limit is reserved for the priority lane: standard
+ * requests are shed once in-flight reaches {@code limit * (1 - reservedShare)},
+ * priority requests only at the full limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int BASELINE_WINDOWS = 100;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final String routeId;
+    private final GradientConcurrencyLimit limit;
+    private final double reservedShare;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder acceptedStandard = new LongAdder();
+    private final LongAdder acceptedPriority = new LongAdder();
+    private final LongAdder shedStandard = new LongAdder();
+    private final LongAdder shedPriority = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(
+            String routeId,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double tolerance,
+            double reservedShare,
+            Duration window) {
+        this(routeId, new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, SMOOTHING,
+                BASELINE_WINDOWS, window.toNanos(), MIN_WINDOW_SAMPLES), reservedShare);
+    }
+
+    AdaptiveConcurrencyLimiter(String routeId, GradientConcurrencyLimit limit, double reservedShare) {
+        if (reservedShare < 0 || reservedShare >= 1) {
+            throw new IllegalArgumentException("reservedShare must be in [0, 1)");
+        }
+        this.routeId = routeId;
+        this.limit = limit;
+        this.reservedShare = reservedShare;
+    }
+
+    /** A slot taken by an admitted request; release it exactly once. */
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inflightAtStart;
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /** The request finished; {@code dropped} marks 5xx responses and errors. */
+        public void complete(boolean dropped) {
+            long now = System.nanoTime();
+            inflight.decrementAndGet();
+            limit.onSample(now, now - startNanos, inflightAtStart, dropped);
+        }
+
+        /** The request ended without a meaningful latency, e.g. the client went away. */
+        public void abandon() {
+            inflight.decrementAndGet();
+        }
+    }
+
+    /** @return a permit, or null when the request should be shed */
+    public Permit tryAcquire(boolean priority) {
+        int current = limit.getLimit();
+        int allowed = priority ? current : Math.max(1, (int) (current * (1 - reservedShare)));
+        while (true) {
+            int n = inflight.get();
+            if (n >= allowed) {
+                (priority ? shedPriority : shedStandard).increment();
+                return null;
+            }
+            if (inflight.compareAndSet(n, n + 1)) {
+                (priority ? acceptedPriority : acceptedStandard).increment();
+                return new Permit(n + 1);
+            }
+        }
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long acceptedCount(boolean priority) {
+        return (priority ? acceptedPriority : acceptedStandard).sum();
+    }
+
+    public long shedCount(boolean priority) {
+        return (priority ? shedPriority : shedStandard).sum();
+    }
+}
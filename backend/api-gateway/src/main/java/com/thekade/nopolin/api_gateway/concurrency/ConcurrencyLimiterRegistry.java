@@ -0,0 +1,59 @@
+package com.thekade.nopolin.api_gateway.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the limit, in-flight count and shed counters of every route's
+ * concurrency limiter. A route refresh replaces the limiter and its meters.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public synchronized void register(AdaptiveConcurrencyLimiter limiter) {
+        String routeId = limiter.getRouteId();
+        List<Meter> previous = meters.remove(routeId);
+        if (previous != null) {
+            previous.forEach(meterRegistry::remove);
+        }
+        List<Meter> registered = new ArrayList<>();
+        registered.add(Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry));
+        registered.add(Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .tag("route", routeId)
+                .register(meterRegistry));
+        for (boolean priority : new boolean[] {false, true}) {
+            String lane = priority ? "priority" : "standard";
+            registered.add(FunctionCounter.builder("gateway.concurrency.requests", limiter,
+                            l -> l.acceptedCount(priority))
+                    .tag("route", routeId)
+                    .tag("lane", lane)
+                    .tag("outcome", "accepted")
+                    .register(meterRegistry));
+            registered.add(FunctionCounter.builder("gateway.concurrency.requests", limiter,
+                            l -> l.shedCount(priority))
+                    .tag("route", routeId)
+                    .tag("lane", lane)
+                    .tag("outcome", "shed")
+                    .register(meterRegistry));
+        }
+        meters.put(routeId, registered);
+    }
+}
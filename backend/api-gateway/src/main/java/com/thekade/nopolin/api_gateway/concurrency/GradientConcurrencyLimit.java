@@ -0,0 +1,133 @@
+package com.thekade.nopolin.api_gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Learns a concurrency limit from downstream latency, in the style of
+ * Netflix's gradient limiter. Samples are summed lock-free; once per window a
+ * single caller compares the window's average latency with a slow moving
+ * baseline and scales the limit by their ratio:
+ *
+ * <pre>
+ * gradient = clamp(tolerance * baseline / recent, 0.5, 1)
+ * limit    = limit * gradient + sqrt(limit)
+ * </pre>
+ *
+ * The square-root term lets the limit probe upwards while latency holds
+ * steady. A window with failed requests cuts the limit multiplicatively. The
+ * limit does not grow while fewer than half of it is in use, so a quiet
+ * period cannot inflate it.
+ */
+class GradientConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double baselineAlpha;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowDrops = new LongAdder();
+    private final LongAccumulator windowMaxInflight = new LongAccumulator(Math::max, 0);
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile long windowStart;
+    private volatile double estimatedLimit;
+    private volatile int limit;
+    // Only read and written by the caller holding "updating".
+    private double baselineRtt;
+
+    GradientConcurrencyLimit(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double tolerance,
+            double smoothing,
+            int baselineWindows,
+            long windowNanos,
+            int minWindowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.baselineAlpha = 2.0 / (baselineWindows + 1);
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.windowStart = System.nanoTime();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Records one finished request.
+     *
+     * @param inflight requests in flight when this one started, itself included
+     * @param dropped  whether the request failed in a way that suggests overload
+     */
+    void onSample(long now, long rttNanos, int inflight, boolean dropped) {
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+        windowMaxInflight.accumulate(inflight);
+        if (dropped) {
+            windowDrops.increment();
+        }
+        if (now - windowStart >= windowNanos && updating.compareAndSet(false, true)) {
+            try {
+                update(now);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void update(long now) {
+        if (windowSamples.sum() < minWindowSamples) {
+            return;
+        }
+        windowStart = now;
+        long samples = windowSamples.sumThenReset();
+        double recentRtt = (double) windowRttSum.sumThenReset() / samples;
+        long drops = windowDrops.sumThenReset();
+        long maxInflight = windowMaxInflight.getThenReset();
+
+        double current = estimatedLimit;
+        double next;
+        if (drops > 0) {
+            next = current * DROP_BACKOFF;
+        } else {
+            if (baselineRtt == 0) {
+                baselineRtt = recentRtt;
+            } else if (baselineRtt / recentRtt > 2) {
+                // Latency fell sharply; let the baseline follow quickly instead of
+                // growing the limit on a stale, inflated baseline.
+                baselineRtt *= 0.95;
+            } else {
+                baselineRtt += baselineAlpha * (recentRtt - baselineRtt);
+            }
+            if (maxInflight < current / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRtt / recentRtt));
+            double target = current * gradient + Math.sqrt(current);
+            next = current * (1 - smoothing) + target * smoothing;
+        }
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        estimatedLimit = next;
+        limit = (int) next;
+    }
+}
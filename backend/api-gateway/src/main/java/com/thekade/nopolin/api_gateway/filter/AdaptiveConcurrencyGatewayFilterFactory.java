@@ -0,0 +1,105 @@
+package com.thekade.nopolin.api_gateway.filter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.thekade.nopolin.api_gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.thekade.nopolin.api_gateway.concurrency.ConcurrencyLimiterRegistry;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import lombok.Data;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Caps the requests a route has in flight at a limit learned from downstream
+ * latency, and answers the rest with an immediate 503 instead of letting
+ * them queue in the service. Users with a priority role keep a reserved
+ * share of the limit, so officers and admins still get through a citizen
+ * burst.
+ *
+ * <pre>
+ * filters:
+ *   - name: AdaptiveConcurrency
+ *     args:
+ *       initialLimit: 50
+ *       maxLimit: 400
+ * </pre>
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    public AdaptiveConcurrencyGatewayFilterFactory(ConcurrencyLimiterRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("initialLimit", "maxLimit");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unnamed";
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(routeId, config.getInitialLimit(),
+                config.getMinLimit(), config.getMaxLimit(), config.getTolerance(), config.getReservedShare(),
+                config.getWindow());
+        registry.register(limiter);
+        Set<String> priorityRoles = Set.copyOf(config.getPriorityRoles());
+        String retryAfter = Long.toString(Math.max(1, config.getRetryAfter().toSeconds()));
+
+        return (exchange, chain) -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(isPriority(exchange, priorityRoles));
+            if (permit == null) {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                return response.setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    permit.abandon();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                permit.complete(signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError()));
+            });
+        };
+    }
+
+    private static boolean isPriority(ServerWebExchange exchange, Set<String> priorityRoles) {
+        VerifiedToken token = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+        return token != null && token.getRole() != null && priorityRoles.contains(token.getRole());
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int initialLimit = 50;
+        private int minLimit = 10;
+        private int maxLimit = 500;
+        /** How much the recent latency may exceed the baseline before the limit shrinks. */
+        private double tolerance = 1.5;
+        /** Share of the limit only the priority roles may use. */
+        private double reservedShare = 0.2;
+        private List<String> priorityRoles = List.of("GOV_OFFICER", "ADMIN");
+        /** How often the limit is recalculated from the latency samples. */
+        private Duration window = Duration.ofMillis(250);
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,146 @@
+package com.thekade.nopolin.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.thekade.nopolin.api_gateway.resilience.RetryBudget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.retry.Backoff;
+import reactor.retry.Jitter;
+import reactor.retry.Repeat;
+import reactor.retry.Retry;
+
+/**
+ * The built-in {@code Retry} filter, same arguments, except that every retry
+ * must also be paid for from the gateway-wide {@link RetryBudget}. The budget
+ * is checked last, only once a response or error has been found retryable.
+ *
+ * <pre>
+ * filters:
+ *   - name: BudgetedRetry
+ *     args:
+ *       retries: 2
+ *       statuses: BAD_GATEWAY,SERVICE_UNAVAILABLE
+ *       methods: GET
+ *       backoff:
+ *         firstBackoff: 50ms
+ *         maxBackoff: 500ms
+ *       jitter:
+ *         randomFactor: 0.5
+ * </pre>
+ */
+@Component
+public class BudgetedRetryGatewayFilterFactory extends RetryGatewayFilterFactory {
+
+    private final RetryBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    public BudgetedRetryGatewayFilterFactory(RetryBudget budget, MeterRegistry meterRegistry) {
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(RetryConfig config) {
+        config.validate();
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unnamed";
+        Counter retried = retryCounter(routeId, "retried");
+        Counter denied = retryCounter(routeId, "budget_exhausted");
+
+        Repeat<ServerWebExchange> statusRepeat = null;
+        if (!config.getStatuses().isEmpty() || !config.getSeries().isEmpty()) {
+            statusRepeat = Repeat.<ServerWebExchange>onlyIf(context -> {
+                ServerWebExchange exchange = context.applicationContext();
+                return !exceedsMaxIterations(exchange, config)
+                        && isRetryableMethod(exchange, config)
+                        && isRetryableStatus(exchange.getResponse().getStatusCode(), config)
+                        && withdraw(retried, denied);
+            }).doOnRepeat(context -> reset(context.applicationContext()));
+            statusRepeat = statusRepeat.backoff(backoff(config)).jitter(jitter(config));
+            if (config.getTimeout() != null) {
+                statusRepeat = statusRepeat.timeout(config.getTimeout());
+            }
+        }
+
+        Retry<ServerWebExchange> exceptionRetry = null;
+        if (!config.getExceptions().isEmpty()) {
+            exceptionRetry = Retry.<ServerWebExchange>onlyIf(context -> {
+                ServerWebExchange exchange = context.applicationContext();
+                return !exceedsMaxIterations(exchange, config)
+                        && isRetryableMethod(exchange, config)
+                        && isRetryableException(context.exception(), config)
+                        && withdraw(retried, denied);
+            }).doOnRetry(context -> reset(context.applicationContext()))
+                    .retryMax(config.getRetries());
+            exceptionRetry = exceptionRetry.backoff(backoff(config)).jitter(jitter(config));
+            if (config.getTimeout() != null) {
+                exceptionRetry = exceptionRetry.timeout(config.getTimeout());
+            }
+        }
+
+        GatewayFilter retrying = apply(routeId, statusRepeat, exceptionRetry);
+        return (exchange, chain) -> {
+            budget.recordRequest();
+            return retrying.filter(exchange, chain);
+        };
+    }
+
+    private boolean withdraw(Counter retried, Counter denied) {
+        if (budget.tryWithdraw()) {
+            retried.increment();
+            return true;
+        }
+        denied.increment();
+        return false;
+    }
+
+    private Counter retryCounter(String routeId, String outcome) {
+        return Counter.builder("gateway.retry.attempts")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static boolean isRetryableMethod(ServerWebExchange exchange, RetryConfig config) {
+        return config.getMethods().contains(exchange.getRequest().getMethod());
+    }
+
+    private static boolean isRetryableStatus(HttpStatusCode status, RetryConfig config) {
+        if (status == null) {
+            return false;
+        }
+        if (status instanceof HttpStatus httpStatus) {
+            return config.getStatuses().contains(httpStatus) || config.getSeries().contains(httpStatus.series());
+        }
+        return false;
+    }
+
+    private static boolean isRetryableException(Throwable exception, RetryConfig config) {
+        for (Class<? extends Throwable> retryable : config.getExceptions()) {
+            if (retryable.isInstance(exception) || (exception != null && retryable.isInstance(exception.getCause()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Backoff backoff(RetryConfig config) {
+        BackoffConfig backoff = config.getBackoff();
+        if (backoff == null) {
+            return Backoff.zero();
+        }
+        return Backoff.exponential(backoff.getFirstBackoff(), backoff.getMaxBackoff(), backoff.getFactor(),
+                backoff.isBasedOnPreviousValue());
+    }
+
+    private static Jitter jitter(RetryConfig config) {
+        JitterConfig jitter = config.getJitter();
+        return jitter == null ? Jitter.noJitter() : Jitter.random(jitter.getRandomFactor());
+    }
+}
@@ -0,0 +1,158 @@
+package com.thekade.nopolin.api_gateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.thekade.nopolin.security_common.IdentityHeaders;
+import com.thekade.nopolin.security_common.InvalidTokenException;
+import com.thekade.nopolin.security_common.JwtVerifier;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies bearer tokens once at the edge. Invalid or expired tokens are
+ * answered with 401 here instead of costing a downstream hop; valid ones are
+ * forwarded with signed {@link IdentityHeaders} so the services can skip the
+ * JWS parse. Verified tokens are cached by SHA-256 digest until they expire.
+ *
+ * Identity headers sent by clients are always removed. Revocation is still
+ * checked downstream against the access-token denylist, keyed by the
+ * forwarded token id.
+ */
+@Component
+public class EdgeAuthenticationFilter implements GlobalFilter, Ordered {
+
+    /** Exchange attribute holding the {@link VerifiedToken} of an authenticated request. */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = EdgeAuthenticationFilter.class.getName() + ".verifiedToken";
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtVerifier jwtVerifier;
+    private final IdentityHeaders identityHeaders;
+    private final Cache<String, Verified> verifiedTokens;
+
+    public EdgeAuthenticationFilter(
+            @Value("${jwt.secret}") String jwtSecret,
+            @Value("${security.identity.secret:}") String identitySecret,
+            @Value("${gateway.auth.cache.max-size:100000}") long maxSize,
+            @Value("${gateway.auth.cache.max-ttl:PT15M}") Duration maxTtl) {
+        this.jwtVerifier = new JwtVerifier(jwtSecret);
+        this.identityHeaders = new IdentityHeaders(identitySecret);
+        long maxTtlNanos = maxTtl.toNanos();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Verified>() {
+                    @Override
+                    public long expireAfterCreate(String key, Verified value, long currentTime) {
+                        return Math.min(maxTtlNanos, value.remainingNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Verified value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Verified value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /** A verified token and the identity headers signed for it. */
+    private record Verified(VerifiedToken token, Map<String, String> headers) {
+        long remainingNanos() {
+            if (token.getExpiresAt() == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        Verified verified = null;
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            String token = authorization.substring(BEARER.length());
+            String digest = digest(token);
+            verified = verifiedTokens.getIfPresent(digest);
+            if (verified != null && verified.token().isExpired()) {
+                verifiedTokens.invalidate(digest);
+                return unauthorized(exchange, "Expired JWT token");
+            }
+            if (verified == null) {
+                try {
+                    verified = verify(token);
+                } catch (InvalidTokenException e) {
+                    return unauthorized(exchange, e.getReason() == InvalidTokenException.Reason.EXPIRED
+                            ? "Expired JWT token"
+                            : "Invalid JWT token");
+                }
+                verifiedTokens.put(digest, verified);
+            }
+        }
+        if (verified != null) {
+            exchange.getAttributes().put(VERIFIED_TOKEN_ATTRIBUTE, verified.token());
+        }
+        Map<String, String> forwarded = verified != null ? verified.headers() : Map.of();
+        return chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    for (String name : IdentityHeaders.ALL) {
+                        headers.remove(name);
+                    }
+                    forwarded.forEach(headers::set);
+                }))
+                .build());
+    }
+
+    private Verified verify(String token) {
+        VerifiedToken verified = jwtVerifier.verify(token);
+        return new Verified(verified, identityHeaders.sign(verified, token));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        DataBuffer body = response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
@@ -0,0 +1,60 @@
+package com.thekade.nopolin.api_gateway.filter;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.thekade.nopolin.api_gateway.loadbalancer.InstanceStats;
+import com.thekade.nopolin.api_gateway.loadbalancer.InstanceStatsRegistry;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Feeds the outcome of each load-balanced request back into the chosen
+ * instance's {@link InstanceStats}. Runs right after the load balancer so it
+ * also sees cancelled requests, which the load balancer lifecycle does not.
+ */
+@Component
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsFilter(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+        InstanceStats stats = registry.get(chosen.getServer());
+        stats.start();
+        long started = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                stats.abandon();
+                return;
+            }
+            long now = System.nanoTime();
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            stats.complete(now, now - started,
+                    signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError()));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,130 @@
+package com.thekade.nopolin.api_gateway.filter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.thekade.nopolin.api_gateway.ratelimit.LocalRateLimiter;
+import com.thekade.nopolin.api_gateway.ratelimit.LocalRateLimiterRegistry;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import lombok.Data;
+
+/**
+ * In-process replacement for {@code RequestRateLimiter} that needs no Redis.
+ * Each route gets its own token buckets, keyed by user, client address or API
+ * key; limits are per gateway instance. Rejected requests get a 429 with
+ * {@code Retry-After}.
+ *
+ * <pre>
+ * filters:
+ *   - name: LocalRateLimit
+ *     args:
+ *       capacity: 20
+ *       replenishRate: 5
+ *       key: IP
+ * </pre>
+ */
+@Component
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+
+    public enum KeyType {
+        /** The authenticated user id; anonymous requests fall back to the client address. */
+        USER,
+        IP,
+        /** The value of {@link Config#getApiKeyHeader()}; requests without one fall back to the client address. */
+        API_KEY
+    }
+
+    private final LocalRateLimiterRegistry registry;
+
+    public LocalRateLimitGatewayFilterFactory(LocalRateLimiterRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("capacity", "replenishRate", "key");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unnamed";
+        LocalRateLimiter limiter = new LocalRateLimiter(routeId, config.getKey().name(), config.getCapacity(),
+                config.getReplenishRate(), config.getMaxKeys(), config.getIdleTimeout());
+        registry.register(limiter);
+        RemoteAddressResolver addressResolver = config.getTrustedProxies() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(config.getTrustedProxies())
+                : new RemoteAddressResolver() {
+                };
+
+        return (exchange, chain) -> {
+            LocalRateLimiter.Decision decision = limiter.tryAcquire(resolveKey(exchange, config, addressResolver));
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.set(REMAINING_HEADER, Long.toString(decision.remaining()));
+            headers.set(BURST_CAPACITY_HEADER, Integer.toString(config.getCapacity()));
+            headers.set(REPLENISH_RATE_HEADER, Double.toString(config.getReplenishRate()));
+            if (decision.allowed()) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            long retryAfterSeconds = Math.max(1, (decision.retryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1)
+                    / TimeUnit.SECONDS.toNanos(1));
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return response.setComplete();
+        };
+    }
+
+    private static String resolveKey(ServerWebExchange exchange, Config config, RemoteAddressResolver addressResolver) {
+        if (config.getKey() == KeyType.USER) {
+            VerifiedToken token = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+            if (token != null && token.getUserId() != null) {
+                return "user:" + token.getUserId();
+            }
+        } else if (config.getKey() == KeyType.API_KEY) {
+            String apiKey = exchange.getRequest().getHeaders().getFirst(config.getApiKeyHeader());
+            if (apiKey != null && !apiKey.isBlank()) {
+                return "key:" + apiKey;
+            }
+        }
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        if (address == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + (address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString());
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int capacity = 10;
+        /** Tokens added per second. */
+        private double replenishRate = 1;
+        private KeyType key = KeyType.IP;
+        private String apiKeyHeader = "X-API-Key";
+        /** Proxies in front of the gateway whose X-Forwarded-For entries are trusted; 0 uses the peer address. */
+        private int trustedProxies;
+        private long maxKeys = 100_000;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,293 @@
+package com.thekade.nopolin.api_gateway.filter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.thekade.nopolin.api_gateway.cache.BufferingServerHttpResponse;
+import com.thekade.nopolin.api_gateway.cache.CachedResponse;
+import com.thekade.nopolin.api_gateway.cache.ResponseCache;
+import com.thekade.nopolin.api_gateway.cache.ResponseCacheRegistry;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collapses identical concurrent GETs into one upstream call and keeps the
+ * result in a bounded in-memory cache for a short TTL. Within the
+ * {@code staleWhileRevalidate} window after the TTL the stale copy is served
+ * while one background request refreshes it.
+ *
+ * <p>Entries are partitioned by authenticated user and honour the response's
+ * {@code Vary}; {@code Cache-Control: max-age} or {@code s-maxage} can shorten
+ * the TTL, and {@code no-store}, {@code no-cache}, {@code private} or a
+ * {@code Set-Cookie} keep a response out of the cache. Only 200 responses up to
+ * {@code maxBodySize} are stored. Served responses carry {@code X-Cache}.
+ *
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       ttl: 5s
+ *       staleWhileRevalidate: 30s
+ * </pre>
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // Before NettyWriteResponseFilter, so the upstream body is written to the buffering response.
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH);
+
+    private final ResponseCacheRegistry registry;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "staleWhileRevalidate");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getTtl() == null || config.getTtl().isNegative() || config.getTtl().isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unnamed";
+        ResponseCache cache = new ResponseCache(routeId, config.getMaxEntries(), Ticker.systemTicker());
+        registry.register(cache);
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpHeaders requestHeaders = request.getHeaders();
+            if (request.getMethod() != HttpMethod.GET
+                    || requestHeaders.containsKey(HttpHeaders.RANGE)
+                    || requestHeaders.containsKey(HttpHeaders.UPGRADE)) {
+                return chain.filter(exchange);
+            }
+            String baseKey = baseKey(exchange);
+            String key = variantKey(baseKey, cache.varyNames(baseKey), requestHeaders);
+
+            CachedResponse cached = cache.lookup(key);
+            if (cached != null) {
+                long now = cache.now();
+                if (cached.isFresh(now)) {
+                    return write(exchange, cached, "HIT", now);
+                }
+                cache.revalidate(key, baseKey, () -> fetch(exchange, chain, baseKey, config, cache));
+                return write(exchange, cached, "STALE", now);
+            }
+
+            AtomicBoolean led = new AtomicBoolean();
+            return cache.load(key, baseKey, () -> {
+                led.set(true);
+                return fetch(exchange, chain, baseKey, config, cache);
+            }).flatMap(response -> {
+                if (led.get() || (response.shareable() && response.matches(requestHeaders))) {
+                    return write(exchange, response, "MISS", -1);
+                }
+                // The shared result varies on a header this request sent differently.
+                return fetch(exchange, chain, baseKey, config, cache)
+                        .flatMap(own -> write(exchange, own, "MISS", -1));
+            });
+        }, ORDER);
+    }
+
+    /** Routes the request through the rest of the chain into a buffer instead of the client. */
+    private static Mono<CachedResponse> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String baseKey,
+            Config config, ResponseCache cache) {
+        BufferingServerHttpResponse buffer = new BufferingServerHttpResponse(exchange.getResponse().bufferFactory());
+        return chain.filter(new DetachedExchange(exchange, buffer))
+                .then(Mono.fromSupplier(() -> toCachedResponse(exchange.getRequest().getHeaders(), buffer, baseKey,
+                        config, cache.now())));
+    }
+
+    private static CachedResponse toCachedResponse(HttpHeaders requestHeaders, BufferingServerHttpResponse buffer,
+            String baseKey, Config config, long now) {
+        int status = buffer.getStatusCode() != null ? buffer.getStatusCode().value() : HttpStatus.OK.value();
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(buffer.getHeaders());
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        buffer.getCookies().values().forEach(cookies -> cookies
+                .forEach(cookie -> headers.add(HttpHeaders.SET_COOKIE, cookie.toString())));
+        byte[] body = buffer.getBody();
+
+        List<String> cacheControl = directives(headers.getOrEmpty(HttpHeaders.CACHE_CONTROL));
+        boolean varyAll = false;
+        Map<String, String> varyValues = new LinkedHashMap<>();
+        for (String name : headers.getVary()) {
+            if ("*".equals(name)) {
+                varyAll = true;
+            } else {
+                String normalized = name.toLowerCase(Locale.ROOT);
+                varyValues.put(normalized, CachedResponse.headerValue(requestHeaders, normalized));
+            }
+        }
+        boolean shareable = !varyAll
+                && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && !cacheControl.contains("private");
+        long ttlNanos = ttlNanos(config.getTtl(), cacheControl);
+        boolean storable = shareable
+                && status == HttpStatus.OK.value()
+                && ttlNanos > 0
+                && body.length <= config.getMaxBodySize().toBytes()
+                && !cacheControl.contains("no-store")
+                && !cacheControl.contains("no-cache");
+        long swrNanos = config.getStaleWhileRevalidate() != null ? config.getStaleWhileRevalidate().toNanos() : 0;
+
+        return new CachedResponse(
+                variantKey(baseKey, varyValues.keySet(), requestHeaders),
+                status,
+                HttpHeaders.readOnlyHttpHeaders(headers),
+                body,
+                Collections.unmodifiableMap(varyValues),
+                shareable,
+                storable,
+                now,
+                now + ttlNanos,
+                now + ttlNanos + Math.max(0, swrNanos));
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus, long now) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        if (cached.status() != HttpStatus.NO_CONTENT.value() && cached.status() != HttpStatus.NOT_MODIFIED.value()) {
+            headers.setContentLength(cached.body().length);
+        }
+        if (now >= 0) {
+            headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        }
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static String baseKey(ServerWebExchange exchange) {
+        VerifiedToken token = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+        String principal = token == null ? "-"
+                : token.getUserId() != null ? "user:" + token.getUserId() : "sub:" + token.getSubject();
+        String path = exchange.getRequest().getURI().getRawPath();
+        String query = exchange.getRequest().getURI().getRawQuery();
+        return principal + ' ' + (query != null ? path + '?' + query : path);
+    }
+
+    private static String variantKey(String baseKey, Collection<String> varyNames, HttpHeaders requestHeaders) {
+        if (varyNames.isEmpty()) {
+            return baseKey;
+        }
+        StringBuilder key = new StringBuilder(baseKey);
+        for (String name : varyNames) {
+            String value = CachedResponse.headerValue(requestHeaders, name);
+            key.append('\n').append(name).append(value != null ? "=" + value : "");
+        }
+        return key.toString();
+    }
+
+    private static List<String> directives(List<String> cacheControl) {
+        List<String> directives = new ArrayList<>();
+        for (String value : cacheControl) {
+            for (String directive : value.split(",")) {
+                if (!directive.isBlank()) {
+                    directives.add(directive.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return directives;
+    }
+
+    /** The route TTL, shortened by the response's {@code s-maxage} or else {@code max-age}. */
+    private static long ttlNanos(Duration ttl, List<String> cacheControl) {
+        Long maxAge = null;
+        for (String directive : cacheControl) {
+            if (directive.startsWith("s-maxage=")) {
+                maxAge = seconds(directive.substring("s-maxage=".length()));
+                break;
+            }
+            if (directive.startsWith("max-age=")) {
+                maxAge = seconds(directive.substring("max-age=".length()));
+            }
+        }
+        long ttlNanos = ttl.toNanos();
+        return maxAge != null ? Math.min(ttlNanos, Duration.ofSeconds(maxAge).toNanos()) : ttlNanos;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The exchange as seen by the rest of the chain during a fetch: its own
+     * response, and its own copy of the attributes so that a background
+     * revalidation does not write routing state into the client's exchange.
+     */
+    private static final class DetachedExchange extends ServerWebExchangeDecorator {
+
+        private final ServerHttpResponse response;
+        private final Map<String, Object> attributes;
+
+        DetachedExchange(ServerWebExchange delegate, ServerHttpResponse response) {
+            super(delegate);
+            this.response = response;
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private Duration ttl = Duration.ofSeconds(5);
+        /** How long after the TTL a stale entry may be served while it is refreshed; zero disables. */
+        private Duration staleWhileRevalidate = Duration.ZERO;
+        private long maxEntries = 10_000;
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+    }
+}
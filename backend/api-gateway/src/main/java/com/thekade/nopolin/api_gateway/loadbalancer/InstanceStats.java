@@ -0,0 +1,88 @@
+package com.thekade.nopolin.api_gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Live counters for one service instance: requests in flight, latency timers
+ * and the passive outlier-ejection state. An instance is ejected
+ * after a run of consecutive failures, for longer each time it happens
+ * again; the penalty resets once it has served well for as long as it was
+ * last ejected.
+ */
+public class InstanceStats {
+
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final Timer successLatency;
+    private final Timer failureLatency;
+    private final int failureThreshold;
+    private final long baseEjectionNanos;
+
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+    private volatile int ejections;
+
+    InstanceStats(Timer successLatency, Timer failureLatency, int failureThreshold, Duration baseEjection) {
+        this.successLatency = successLatency;
+        this.failureLatency = failureLatency;
+        this.failureThreshold = failureThreshold;
+        this.baseEjectionNanos = baseEjection.toNanos();
+    }
+
+    public void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /** A request ended without a usable result, e.g. the client disconnected. */
+    public void abandon() {
+        outstanding.decrementAndGet();
+    }
+
+    public void complete(long now, long elapsedNanos, boolean failed) {
+        outstanding.decrementAndGet();
+        (failed ? failureLatency : successLatency).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (!failed) {
+            consecutiveFailures.set(0);
+            if (ejected && now - ejectedUntil > baseEjectionNanos * ejections) {
+                recover();
+            }
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            eject(now);
+        }
+    }
+
+    private synchronized void eject(long now) {
+        if (isEjected(now)) {
+            return;
+        }
+        consecutiveFailures.set(0);
+        ejections = Math.min(ejections + 1, MAX_EJECTION_MULTIPLIER);
+        ejectedUntil = now + baseEjectionNanos * ejections;
+        ejected = true;
+    }
+
+    private synchronized void recover() {
+        ejected = false;
+        ejections = 0;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isEjected(long now) {
+        return ejected && now - ejectedUntil < 0;
+    }
+
+    long getEjectedUntil() {
+        return ejectedUntil;
+    }
+}
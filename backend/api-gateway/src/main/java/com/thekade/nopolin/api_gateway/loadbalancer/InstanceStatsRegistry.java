@@ -0,0 +1,69 @@
+package com.thekade.nopolin.api_gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link InstanceStats} for every instance the gateway has routed to, shared
+ * by the load balancers of all services. Each instance publishes
+ * {@code gateway.lb.latency}, {@code gateway.lb.outstanding} and
+ * {@code gateway.lb.ejected}, tagged with service and instance.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold;
+    private final Duration baseEjection;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.loadbalancer.outlier.consecutive-failures:5}") int failureThreshold,
+            @Value("${gateway.loadbalancer.outlier.base-ejection:PT30S}") Duration baseEjection) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.baseEjection = baseEjection;
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        String serviceId = instance.getServiceId();
+        String address = instance.getHost() + ":" + instance.getPort();
+        return stats.computeIfAbsent(serviceId + "/" + address, key -> create(serviceId, address));
+    }
+
+    private InstanceStats create(String serviceId, String address) {
+        InstanceStats instanceStats = new InstanceStats(
+                latencyTimer(serviceId, address, "success"),
+                latencyTimer(serviceId, address, "failure"),
+                failureThreshold,
+                baseEjection);
+        Gauge.builder("gateway.lb.outstanding", instanceStats, InstanceStats::getOutstanding)
+                .tag("service", serviceId)
+                .tag("instance", address)
+                .register(meterRegistry);
+        Gauge.builder("gateway.lb.ejected", instanceStats, s -> s.isEjected(System.nanoTime()) ? 1 : 0)
+                .tag("service", serviceId)
+                .tag("instance", address)
+                .register(meterRegistry);
+        return instanceStats;
+    }
+
+    private Timer latencyTimer(String serviceId, String address, String outcome) {
+        return Timer.builder("gateway.lb.latency")
+                .tag("service", serviceId)
+                .tag("instance", address)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
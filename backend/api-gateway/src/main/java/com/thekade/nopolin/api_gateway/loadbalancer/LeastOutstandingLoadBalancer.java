@@ -0,0 +1,89 @@
+package com.thekade.nopolin.api_gateway.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Power-of-two-choices over the healthy instances: two are picked at random
+ * and the one with fewer requests in flight wins. Slow instances accumulate
+ * outstanding requests and so lose most comparisons, without the herding a
+ * global least-outstanding pick causes. Instances ejected for consecutive failures are
+ * skipped, but never more than {@code maxEjectedShare} of them, so a
+ * service-wide failure still spreads load instead of hammering one survivor.
+ */
+public class LeastOutstandingLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final InstanceStatsRegistry stats;
+    private final double maxEjectedShare;
+
+    public LeastOutstandingLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> suppliers,
+            InstanceStatsRegistry stats,
+            double maxEjectedShare) {
+        this.suppliers = suppliers;
+        this.stats = stats;
+        this.maxEjectedShare = maxEjectedShare;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> candidates = admitted(instances, System.nanoTime());
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(stats.get(a).getOutstanding() <= stats.get(b).getOutstanding() ? a : b);
+    }
+
+    /** The instances to balance over: the non-ejected ones, topped up with the soonest to return. */
+    private List<ServiceInstance> admitted(List<ServiceInstance> instances, long now) {
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        List<ServiceInstance> ejected = new ArrayList<>();
+        for (ServiceInstance instance : instances) {
+            (stats.get(instance).isEjected(now) ? ejected : healthy).add(instance);
+        }
+        int minimum = Math.max(1, (int) Math.ceil(instances.size() * (1 - maxEjectedShare)));
+        if (healthy.size() < minimum) {
+            ejected.sort(Comparator.comparingLong(instance -> stats.get(instance).getEjectedUntil() - now));
+            healthy.addAll(ejected.subList(0, minimum - healthy.size()));
+        }
+        return healthy;
+    }
+}
@@ -0,0 +1,37 @@
+package com.thekade.nopolin.api_gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer beans. Not a {@code @Configuration}: Spring Cloud
+ * LoadBalancer instantiates it in each service's child context.
+ */
+public class LeastOutstandingLoadBalancerConfiguration {
+
+    /** Instances come from the static discovery list and pass active health checks. */
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+    }
+
+    @Bean
+    public LeastOutstandingLoadBalancer reactorServiceInstanceLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            InstanceStatsRegistry stats,
+            @Value("${gateway.loadbalancer.outlier.max-ejected-share:0.5}") double maxEjectedShare) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        return new LeastOutstandingLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                stats,
+                maxEjectedShare);
+    }
+}
@@ -0,0 +1,9 @@
+package com.thekade.nopolin.api_gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastOutstandingLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
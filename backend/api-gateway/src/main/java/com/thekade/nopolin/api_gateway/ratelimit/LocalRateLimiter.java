@@ -0,0 +1,104 @@
+package com.thekade.nopolin.api_gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * The buckets of one route. Buckets live in a bounded Caffeine map and are
+ * dropped after sitting idle; the idle timeout is never shorter than a full
+ * refill, so an evicted bucket would have been full anyway.
+ */
+public class LocalRateLimiter {
+
+    public record Decision(boolean allowed, long remaining, long retryAfterNanos) {
+    }
+
+    public record Snapshot(
+            String routeId,
+            String key,
+            int capacity,
+            double replenishRate,
+            long trackedKeys,
+            long allowed,
+            long rejected) {
+    }
+
+    private final String routeId;
+    private final String keyDescription;
+    private final int capacity;
+    private final double replenishRate;
+    private final long intervalNanos;
+    private final Cache<String, TokenBucket> buckets;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public LocalRateLimiter(
+            String routeId,
+            String keyDescription,
+            int capacity,
+            double replenishRate,
+            long maxKeys,
+            Duration idleTimeout) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (!(replenishRate > 0)) {
+            throw new IllegalArgumentException("replenishRate must be positive");
+        }
+        this.routeId = routeId;
+        this.keyDescription = keyDescription;
+        this.capacity = capacity;
+        this.replenishRate = replenishRate;
+        this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / replenishRate));
+        long refillNanos = intervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Math.max(idleTimeout.toNanos(), refillNanos), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    public Decision tryAcquire(String key) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(now));
+        long wait = bucket.tryTake(now, intervalNanos, capacity);
+        if (wait == 0) {
+            allowed.increment();
+        } else {
+            rejected.increment();
+        }
+        return new Decision(wait == 0, bucket.available(now, intervalNanos, capacity), wait);
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getReplenishRate() {
+        return replenishRate;
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    public long allowedCount() {
+        return allowed.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(routeId, keyDescription, capacity, replenishRate,
+                trackedKeys(), allowedCount(), rejectedCount());
+    }
+}
@@ -0,0 +1,59 @@
+package com.thekade.nopolin.api_gateway.ratelimit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The rate limiter of every route that uses one, for metrics and the
+ * {@code ratelimits} actuator endpoint. A route refresh replaces the limiter
+ * and its meters.
+ */
+@Component
+public class LocalRateLimiterRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Registration> limiters = new ConcurrentHashMap<>();
+
+    public LocalRateLimiterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private record Registration(LocalRateLimiter limiter, List<Meter> meters) {
+    }
+
+    public synchronized void register(LocalRateLimiter limiter) {
+        String routeId = limiter.getRouteId();
+        Registration previous = limiters.remove(routeId);
+        if (previous != null) {
+            previous.meters().forEach(meterRegistry::remove);
+        }
+        List<Meter> meters = List.of(
+                FunctionCounter.builder("gateway.ratelimit.requests", limiter, LocalRateLimiter::allowedCount)
+                        .tag("route", routeId)
+                        .tag("outcome", "allowed")
+                        .register(meterRegistry),
+                FunctionCounter.builder("gateway.ratelimit.requests", limiter, LocalRateLimiter::rejectedCount)
+                        .tag("route", routeId)
+                        .tag("outcome", "rejected")
+                        .register(meterRegistry),
+                Gauge.builder("gateway.ratelimit.keys", limiter, LocalRateLimiter::trackedKeys)
+                        .tag("route", routeId)
+                        .register(meterRegistry));
+        limiters.put(routeId, new Registration(limiter, meters));
+    }
+
+    public Collection<LocalRateLimiter.Snapshot> snapshots() {
+        return limiters.values().stream()
+                .map(registration -> registration.limiter().snapshot())
+                .toList();
+    }
+}
@@ -0,0 +1,24 @@
+package com.thekade.nopolin.api_gateway.ratelimit;
+
+import java.util.Collection;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** {@code /actuator/ratelimits}: configuration and counters of each route's limiter. */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+
+    private final LocalRateLimiterRegistry registry;
+
+    public RateLimitEndpoint(LocalRateLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Collection<LocalRateLimiter.Snapshot> rateLimits() {
+        return registry.snapshots();
+    }
+}
@@ -0,0 +1,46 @@
+package com.thekade.nopolin.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count and a refill timestamp the
+ * bucket keeps a single value, the time at which it will next be full, so a
+ * take is one compare-and-set. Times are {@link System#nanoTime()} values.
+ */
+final class TokenBucket {
+
+    /** Nanoseconds after which the bucket is full again; never earlier than creation. */
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @param intervalNanos time to refill one token
+     * @param capacity      maximum tokens the bucket holds
+     * @return 0 when a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryTake(long now, long intervalNanos, int capacity) {
+        long burstNanos = intervalNanos * capacity;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long debt = next - now;
+            if (debt > burstNanos) {
+                return debt - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Whole tokens left at {@code now}. */
+    long available(long now, long intervalNanos, int capacity) {
+        long debt = Math.max(0, fullAt.get() - now);
+        return Math.max(0, capacity - (debt + intervalNanos - 1) / intervalNanos);
+    }
+}
@@ -0,0 +1,66 @@
+package com.thekade.nopolin.api_gateway.resilience;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Defaults for the per-route {@code CircuitBreaker} filters. Breaker state,
+ * call outcomes and failure rates are published by Resilience4j's own
+ * Micrometer binding as {@code resilience4j.circuitbreaker.*}; state
+ * transitions are counted here as {@code gateway.circuitbreaker.transitions}.
+ *
+ * <p>The Resilience4j time limiter is disabled
+ * ({@code spring.cloud.circuitbreaker.resilience4j.disable-time-limiter}):
+ * it would wrap the whole proxied exchange, response body included, and cut
+ * off long downloads. Each route's {@code response-timeout} is the deadline.
+ */
+@Configuration
+public class CircuitBreakerConfiguration {
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCircuitBreakerCustomizer(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.circuitbreaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${gateway.circuitbreaker.slow-call-duration:PT2S}") Duration slowCallDuration,
+            @Value("${gateway.circuitbreaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${gateway.circuitbreaker.minimum-calls:20}") int minimumCalls,
+            @Value("${gateway.circuitbreaker.open-duration:PT10S}") Duration openDuration) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slowCallRateThreshold(100)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+        return factory -> {
+            factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
+                    .circuitBreakerConfig(circuitBreakerConfig)
+                    .build());
+            factory.getCircuitBreakerRegistry().getEventPublisher()
+                    .onEntryAdded(event -> countTransitions(event.getAddedEntry(), meterRegistry));
+        };
+    }
+
+    private static void countTransitions(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> meterRegistry.counter(
+                "gateway.circuitbreaker.transitions",
+                "name", circuitBreaker.getName(),
+                "from", event.getStateTransition().getFromState().name(),
+                "to", event.getStateTransition().getToState().name())
+                .increment());
+    }
+}
@@ -0,0 +1,81 @@
+package com.thekade.nopolin.api_gateway.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Gateway-wide allowance of retries, shared by every route. Each request
+ * deposits {@code ratio} of a retry and each retry withdraws a whole one, so
+ * retries stay a bounded fraction of traffic no matter how many attempts a
+ * route permits; a small per-second allowance keeps retries possible when
+ * traffic is low. When a downstream fails outright the budget drains and
+ * requests fail fast instead of multiplying the load on it.
+ */
+@Component
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long depositPerRequest;
+    private final long minDepositPerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastTopUp = new AtomicLong(System.nanoTime());
+
+    public RetryBudget(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.retry-budget.ratio:0.1}") double ratio,
+            @Value("${gateway.retry-budget.min-per-second:5}") double minPerSecond,
+            @Value("${gateway.retry-budget.max-balance:100}") int maxBalance) {
+        this.depositPerRequest = Math.round(ratio * UNIT);
+        this.minDepositPerSecond = Math.round(minPerSecond * UNIT);
+        this.maxBalance = maxBalance * UNIT;
+        this.balance = new AtomicLong(this.maxBalance);
+        Gauge.builder("gateway.retry.budget.balance", this, RetryBudget::available)
+                .register(meterRegistry);
+    }
+
+    /** Called once for every request that may be retried. */
+    public void recordRequest() {
+        deposit(depositPerRequest);
+    }
+
+    /** @return whether a retry may be made; if so it has been paid for */
+    public boolean tryWithdraw() {
+        topUp(System.nanoTime());
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    /** Whole retries currently available. */
+    public double available() {
+        return (double) balance.get() / UNIT;
+    }
+
+    private void topUp(long now) {
+        long last = lastTopUp.get();
+        // Capped so a long idle gap cannot overflow; the balance is capped anyway.
+        long elapsed = Math.min(now - last, TimeUnit.MINUTES.toNanos(1));
+        long earned = elapsed * minDepositPerSecond / TimeUnit.SECONDS.toNanos(1);
+        if (earned > 0 && lastTopUp.compareAndSet(last, now)) {
+            deposit(earned);
+        }
+    }
+
+    private void deposit(long amount) {
+        balance.accumulateAndGet(amount, (current, added) -> Math.min(maxBalance, current + added));
+    }
+}
@@ -0,0 +1,92 @@
+package com.thekade.nopolin.api_gateway.cache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong time = new AtomicLong(1_000 * SECOND);
+    private final ResponseCache cache = new ResponseCache("route", 100, time::get);
+
+    @Test
+    void concurrentLoadsOfOneKeyShareASingleFetch() {
+        Sinks.One<CachedResponse> upstream = Sinks.one();
+        AtomicInteger fetches = new AtomicInteger();
+
+        Mono<CachedResponse> first = cache.load("k", "k", () -> {
+            fetches.incrementAndGet();
+            return upstream.asMono();
+        });
+        Mono<CachedResponse> second = cache.load("k", "k", () -> {
+            fetches.incrementAndGet();
+            return upstream.asMono();
+        });
+        upstream.tryEmitValue(response("k", Map.of(), true, 5 * SECOND, 0));
+
+        assertThat(first.block().body()).isEqualTo(second.block().body());
+        assertThat(fetches).hasValue(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.coalescedCount()).isEqualTo(1);
+        assertThat(cache.lookup("k")).isNotNull();
+    }
+
+    @Test
+    void entriesAreFreshThenStaleThenGone() {
+        cache.load("k", "k", () -> Mono.just(response("k", Map.of(), true, 5 * SECOND, 10 * SECOND))).block();
+
+        assertThat(cache.lookup("k").isFresh(cache.now())).isTrue();
+        time.addAndGet(6 * SECOND);
+        CachedResponse stale = cache.lookup("k");
+        assertThat(stale.isFresh(cache.now())).isFalse();
+        assertThat(stale.ageSeconds(cache.now())).isEqualTo(6);
+        time.addAndGet(10 * SECOND);
+        assertThat(cache.lookup("k")).isNull();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.staleHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unstorableResponsesAreSharedButNotKept() {
+        CachedResponse response = cache.load("k", "k",
+                () -> Mono.just(response("k", Map.of(), false, 5 * SECOND, 0))).block();
+
+        assertThat(response).isNotNull();
+        assertThat(cache.lookup("k")).isNull();
+    }
+
+    @Test
+    void remembersWhichHeadersAResponseVariesOn() {
+        cache.load("k", "k", () -> Mono.just(response("k\norigin=a", Map.of("origin", "a"), true, 5 * SECOND, 0)))
+                .block();
+
+        assertThat(cache.varyNames("k")).containsExactly("origin");
+        assertThat(cache.lookup("k\norigin=a")).isNotNull();
+
+        HttpHeaders sameOrigin = new HttpHeaders();
+        sameOrigin.add("Origin", "a");
+        HttpHeaders otherOrigin = new HttpHeaders();
+        otherOrigin.add("Origin", "b");
+        CachedResponse cached = cache.lookup("k\norigin=a");
+        assertThat(cached.matches(sameOrigin)).isTrue();
+        assertThat(cached.matches(otherOrigin)).isFalse();
+        assertThat(cached.matches(new HttpHeaders())).isFalse();
+    }
+
+    private CachedResponse response(String key, Map<String, String> vary, boolean storable, long ttl, long stale) {
+        long now = time.get();
+        return new CachedResponse(key, 200, HttpHeaders.EMPTY, "true".getBytes(), vary, true, storable,
+                now, now + ttl, now + ttl + stale);
+    }
+}
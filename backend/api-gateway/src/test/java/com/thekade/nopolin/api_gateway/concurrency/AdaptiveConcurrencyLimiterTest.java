@@ -0,0 +1,70 @@
+package com.thekade.nopolin.api_gateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLI = 1_000_000;
+
+    private static GradientConcurrencyLimit limit(int initial) {
+        // Every sample closes a window, so each call below is one update.
+        return new GradientConcurrencyLimit(initial, 5, 1000, 1.5, 1.0, 10, 0, 1);
+    }
+
+    @Test
+    void growsWhileSaturatedAndLatencyHolds() {
+        GradientConcurrencyLimit limit = limit(20);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(System.nanoTime(), 10 * MILLI, limit.getLimit(), false);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(40);
+    }
+
+    @Test
+    void doesNotGrowWhenMostlyIdle() {
+        GradientConcurrencyLimit limit = limit(20);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(System.nanoTime(), 10 * MILLI, 2, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        GradientConcurrencyLimit limit = limit(100);
+        limit.onSample(System.nanoTime(), 10 * MILLI, 100, false);
+        int before = limit.getLimit();
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(System.nanoTime(), 100 * MILLI, 100, false);
+        }
+        assertThat(limit.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void backsOffOnFailures() {
+        GradientConcurrencyLimit limit = limit(100);
+        limit.onSample(System.nanoTime(), 10 * MILLI, 100, true);
+        assertThat(limit.getLimit()).isEqualTo(90);
+    }
+
+    @Test
+    void reservesPartOfTheLimitForPriorityRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test",
+                new GradientConcurrencyLimit(10, 10, 10, 1.5, 0.2, 10, Long.MAX_VALUE, 1), 0.2);
+        for (int i = 0; i < 8; i++) {
+            assertThat(limiter.tryAcquire(false)).isNotNull();
+        }
+        assertThat(limiter.tryAcquire(false)).isNull();
+        assertThat(limiter.tryAcquire(true)).isNotNull();
+        AdaptiveConcurrencyLimiter.Permit last = limiter.tryAcquire(true);
+        assertThat(last).isNotNull();
+        assertThat(limiter.tryAcquire(true)).isNull();
+
+        last.abandon();
+        assertThat(limiter.getInflight()).isEqualTo(9);
+        assertThat(limiter.shedCount(false)).isEqualTo(1);
+        assertThat(limiter.shedCount(true)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.thekade.nopolin.api_gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeastOutstandingLoadBalancerTest {
+
+    private final InstanceStatsRegistry stats =
+            new InstanceStatsRegistry(new SimpleMeterRegistry(), 3, Duration.ofMinutes(1));
+    private final LeastOutstandingLoadBalancer balancer = new LeastOutstandingLoadBalancer(null, stats, 0.5);
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance(null, "svc", "10.0.0.1", port, false);
+    }
+
+    private void fail(ServiceInstance instance, int times) {
+        InstanceStats instanceStats = stats.get(instance);
+        for (int i = 0; i < times; i++) {
+            instanceStats.start();
+            instanceStats.complete(System.nanoTime(), 1_000_000, true);
+        }
+    }
+
+    @Test
+    void prefersTheInstanceWithFewerRequestsInFlight() {
+        ServiceInstance busy = instance(1);
+        ServiceInstance idle = instance(2);
+        for (int i = 0; i < 5; i++) {
+            stats.get(busy).start();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(balancer.choose(List.of(busy, idle)).getServer()).isEqualTo(idle);
+        }
+    }
+
+    @Test
+    void skipsEjectedInstances() {
+        ServiceInstance bad = instance(1);
+        List<ServiceInstance> instances = List.of(bad, instance(2), instance(3), instance(4));
+        fail(bad, 3);
+
+        assertThat(stats.get(bad).isEjected(System.nanoTime())).isTrue();
+        for (int i = 0; i < 50; i++) {
+            assertThat(balancer.choose(instances).getServer()).isNotEqualTo(bad);
+        }
+    }
+
+    @Test
+    void neverEjectsMoreThanTheConfiguredShare() {
+        List<ServiceInstance> instances = List.of(instance(1), instance(2));
+        instances.forEach(instance -> fail(instance, 3));
+
+        Set<ServiceInstance> chosen = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            chosen.add(balancer.choose(instances).getServer());
+        }
+        assertThat(chosen).hasSize(1);
+    }
+
+    @Test
+    void successResetsTheFailureRun() {
+        ServiceInstance flaky = instance(1);
+        fail(flaky, 2);
+        InstanceStats flakyStats = stats.get(flaky);
+        flakyStats.start();
+        flakyStats.complete(System.nanoTime(), 1_000_000, false);
+        fail(flaky, 2);
+
+        assertThat(flakyStats.isEjected(System.nanoTime())).isFalse();
+    }
+}
@@ -0,0 +1,44 @@
+package com.thekade.nopolin.api_gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAllowsBurstThenRefillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertThat(bucket.tryTake(0, SECOND, 3)).isZero();
+        assertThat(bucket.tryTake(0, SECOND, 3)).isZero();
+        assertThat(bucket.tryTake(0, SECOND, 3)).isZero();
+        assertThat(bucket.available(0, SECOND, 3)).isZero();
+        assertThat(bucket.tryTake(0, SECOND, 3)).isEqualTo(SECOND);
+
+        assertThat(bucket.tryTake(SECOND / 2, SECOND, 3)).isEqualTo(SECOND / 2);
+        assertThat(bucket.tryTake(SECOND, SECOND, 3)).isZero();
+        assertThat(bucket.available(10 * SECOND, SECOND, 3)).isEqualTo(3);
+    }
+
+    @Test
+    void limitsEachKeySeparately() {
+        LocalRateLimiter limiter = new LocalRateLimiter("test", "IP", 2, 0.001, 100, Duration.ofMinutes(1));
+
+        assertThat(limiter.tryAcquire("a").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("a").remaining()).isZero();
+        LocalRateLimiter.Decision rejected = limiter.tryAcquire("a");
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isPositive();
+        assertThat(limiter.tryAcquire("b").allowed()).isTrue();
+
+        assertThat(limiter.snapshot().allowed()).isEqualTo(3);
+        assertThat(limiter.snapshot().rejected()).isEqualTo(1);
+        assertThat(limiter.snapshot().trackedKeys()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,34 @@
+package com.thekade.nopolin.api_gateway.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+
+    @Test
+    void retriesAreLimitedToTheBalanceAndEarnedBackByRequests() {
+        RetryBudget budget = new RetryBudget(new SimpleMeterRegistry(), 0.5, 0, 2);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.recordRequest();
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.recordRequest();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    @Test
+    void balanceNeverExceedsTheMaximum() {
+        RetryBudget budget = new RetryBudget(new SimpleMeterRegistry(), 1, 0, 3);
+
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+        assertThat(budget.available()).isEqualTo(3);
+    }
+}
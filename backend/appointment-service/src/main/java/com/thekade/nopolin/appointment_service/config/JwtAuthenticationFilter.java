@@ -1,32 +1,38 @@
 package com.thekade.nopolin.appointment_service.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.thekade.nopolin.security_common.AccessTokenDenylist;
+import com.thekade.nopolin.security_common.IdentityHeaders;
+import com.thekade.nopolin.security_common.InvalidTokenException;
+import com.thekade.nopolin.security_common.JwtVerifier;
+import com.thekade.nopolin.security_common.TokenAuthorities;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtVerifier jwtVerifier;
+    private final AccessTokenDenylist revokedTokens;
+    private final IdentityHeaders identityHeaders;
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier, AccessTokenDenylist revokedTokens,
+                                   IdentityHeaders identityHeaders) {
+        this.jwtVerifier = jwtVerifier;
+        this.revokedTokens = revokedTokens;
+        this.identityHeaders = identityHeaders;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -40,36 +46,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String token = authHeader.substring(7);
-
-        try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(jwtSecret)
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            String username = claims.getSubject();
-
-            @SuppressWarnings("unchecked")
-            List<String> roles = claims.get("roles", List.class);
-            if (roles == null) roles = Collections.emptyList();
-
-            List<SimpleGrantedAuthority> authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    username, null, authorities);
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        } catch (SignatureException | MalformedJwtException | IllegalArgumentException e) {
-            // Invalid token
-            response.setStatus(HttpStatus.UNAUTHORIZED.value());
-            response.getWriter().write("Invalid or expired JWT token");
+        // The gateway has already verified the token; its signed headers save the JWS parse.
+        String bearerToken = authHeader.substring(7);
+        VerifiedToken token = identityHeaders.verify(request::getHeader, bearerToken);
+        if (token == null) {
+            try {
+                token = jwtVerifier.verify(bearerToken);
+            } catch (InvalidTokenException e) {
+                unauthorized(response, e.getReason() == InvalidTokenException.Reason.EXPIRED
+                        ? "Expired JWT token"
+                        : "Invalid JWT token");
+                return;
+            }
+        }
+        if (revokedTokens.isRevoked(token)) {
+            unauthorized(response, "Token has been revoked");
             return;
         }
 
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                token.getSubject(), null, TokenAuthorities.of(token));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
         filterChain.doFilter(request, response);
     }
+
+    private static void unauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.getWriter().write(message);
+    }
 }
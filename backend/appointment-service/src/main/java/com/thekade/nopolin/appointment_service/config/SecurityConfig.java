@@ -2,12 +2,15 @@ package com.thekade.nopolin.appointment_service.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -23,7 +26,14 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                                // Completion of an already authorised event stream
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/appointments/test").authenticated() // secure this endpoint
+                                .requestMatchers(HttpMethod.POST, "/appointments/offices").hasRole("ADMIN")
+                                .requestMatchers("/appointments/bookings/**").authenticated()
+                                .requestMatchers(HttpMethod.POST, "/appointments/queues/*/counters/*/next")
+                                        .hasAnyRole("ADMIN", "GOV_OFFICER")
+                                .requestMatchers("/appointments/queues/**").authenticated()
                                 .anyRequest().permitAll()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -0,0 +1,32 @@
+package com.thekade.nopolin.appointment_service.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.thekade.nopolin.security_common.AccessTokenDenylist;
+import com.thekade.nopolin.security_common.IdentityHeaders;
+import com.thekade.nopolin.security_common.JwtVerifier;
+
+@Configuration
+public class TokenVerificationConfig {
+
+    @Bean
+    public JwtVerifier jwtVerifier(@Value("${jwt.secret}") String jwtSecret) {
+        return new JwtVerifier(jwtSecret);
+    }
+
+    @Bean
+    public IdentityHeaders identityHeaders(@Value("${security.identity.secret:}") String identitySecret) {
+        return new IdentityHeaders(identitySecret);
+    }
+
+    @Bean
+    public AccessTokenDenylist accessTokenDenylist(
+            DataSource dataSource,
+            @Value("${auth.token-denylist.expected-size:10000}") int expectedSize) {
+        return new AccessTokenDenylist(dataSource, expectedSize);
+    }
+}
@@ -0,0 +1,82 @@
+package com.thekade.nopolin.appointment_service.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thekade.nopolin.appointment_service.dto.BookingRequest;
+import com.thekade.nopolin.appointment_service.dto.BookingResponse;
+import com.thekade.nopolin.appointment_service.exception.BookingBacklogException;
+import com.thekade.nopolin.appointment_service.exception.HoldExpiredException;
+import com.thekade.nopolin.appointment_service.exception.SlotUnavailableException;
+import com.thekade.nopolin.appointment_service.service.BookingService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/appointments/bookings")
+@RequiredArgsConstructor
+public class BookingController {
+
+    private final BookingService bookingService;
+
+    @PostMapping
+    public ResponseEntity<BookingResponse> book(@RequestBody BookingRequest request, Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.book(authentication.getName(), request));
+    }
+
+    @PostMapping("/holds")
+    public ResponseEntity<BookingResponse> hold(@RequestBody BookingRequest request, Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.hold(authentication.getName(), request));
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<BookingResponse> confirm(@PathVariable UUID id, Authentication authentication) {
+        return ResponseEntity.ok(bookingService.confirm(id, authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable UUID id, Authentication authentication) {
+        bookingService.cancel(id, authentication.getName(), isStaff(authentication));
+        return ResponseEntity.noContent().build();
+    }
+
+    private static boolean isStaff(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority -> authority.equals("ROLE_ADMIN") || authority.equals("ROLE_GOV_OFFICER"));
+    }
+
+    @ExceptionHandler(SlotUnavailableException.class)
+    public ResponseEntity<String> handleSlotUnavailable(SlotUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(HoldExpiredException.class)
+    public ResponseEntity<String> handleHoldExpired(HoldExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(BookingBacklogException.class)
+    public ResponseEntity<Void> handleBacklog(BookingBacklogException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
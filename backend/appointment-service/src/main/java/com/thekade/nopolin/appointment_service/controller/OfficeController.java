@@ -0,0 +1,66 @@
+package com.thekade.nopolin.appointment_service.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thekade.nopolin.appointment_service.dto.DayAvailabilityResponse;
+import com.thekade.nopolin.appointment_service.dto.FreeSlotResponse;
+import com.thekade.nopolin.appointment_service.dto.OfficeRequest;
+import com.thekade.nopolin.appointment_service.dto.OfficeResponse;
+import com.thekade.nopolin.appointment_service.service.BookingService;
+import com.thekade.nopolin.appointment_service.service.OfficeService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/appointments/offices")
+@RequiredArgsConstructor
+public class OfficeController {
+
+    private final OfficeService officeService;
+    private final BookingService bookingService;
+
+    @GetMapping
+    public ResponseEntity<List<OfficeResponse>> list() {
+        return ResponseEntity.ok(officeService.list());
+    }
+
+    @PostMapping
+    public ResponseEntity<OfficeResponse> create(@RequestBody OfficeRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(officeService.create(request));
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<DayAvailabilityResponse> availability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(bookingService.availability(id, date));
+    }
+
+    @GetMapping("/free-slots")
+    public ResponseEntity<List<FreeSlotResponse>> freeSlots(
+            @RequestParam(required = false) String service,
+            @RequestParam(name = "officeId", required = false) List<Long> officeIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookingService.earliestFree(service, officeIds, from, to, limit));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,69 @@
+package com.thekade.nopolin.appointment_service.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.thekade.nopolin.appointment_service.dto.QueueStatusResponse;
+import com.thekade.nopolin.appointment_service.dto.QueueTicketResponse;
+import com.thekade.nopolin.appointment_service.service.QueueService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/appointments/queues/{officeId}/counters/{counter}")
+@RequiredArgsConstructor
+public class QueueController {
+
+    private final QueueService queueService;
+
+    @GetMapping
+    public ResponseEntity<QueueStatusResponse> status(@PathVariable Long officeId, @PathVariable int counter) {
+        return ResponseEntity.ok(queueService.status(officeId, counter));
+    }
+
+    @PostMapping("/tickets")
+    public ResponseEntity<QueueTicketResponse> take(
+            @PathVariable Long officeId, @PathVariable int counter, Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(queueService.take(officeId, counter, authentication.getName()));
+    }
+
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<QueueTicketResponse> ticket(@PathVariable Long officeId, @PathVariable int counter,
+            @PathVariable long ticket, Authentication authentication) {
+        return ResponseEntity.ok(queueService.ticket(officeId, counter, ticket, authentication.getName(),
+                isStaff(authentication)));
+    }
+
+    @GetMapping(path = "/tickets/{ticket}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter follow(@PathVariable Long officeId, @PathVariable int counter, @PathVariable long ticket,
+            Authentication authentication) {
+        return queueService.follow(officeId, counter, ticket, authentication.getName(), isStaff(authentication));
+    }
+
+    @PostMapping("/next")
+    public ResponseEntity<QueueStatusResponse> callNext(@PathVariable Long officeId, @PathVariable int counter) {
+        return ResponseEntity.ok(queueService.callNext(officeId, counter));
+    }
+
+    private static boolean isStaff(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority -> authority.equals("ROLE_ADMIN") || authority.equals("ROLE_GOV_OFFICER"));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,18 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingRequest {
+    private Long officeId;
+    private LocalDate date;
+    private int slotIndex;
+}
@@ -0,0 +1,29 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingResponse {
+    private UUID id;
+    private Long officeId;
+    private LocalDate date;
+    private int slotIndex;
+    private LocalTime slotStart;
+    private BookingStatus status;
+    private Instant createdAt;
+    /** Until when a {@code HELD} booking waits for confirmation. */
+    private Instant holdExpiresAt;
+}
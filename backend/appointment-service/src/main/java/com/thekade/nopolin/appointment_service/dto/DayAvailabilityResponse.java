@@ -0,0 +1,29 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayAvailabilityResponse {
+    private Long officeId;
+    private LocalDate date;
+    private List<Slot> slots;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Slot {
+        private int index;
+        private LocalTime start;
+        private int remaining;
+    }
+}
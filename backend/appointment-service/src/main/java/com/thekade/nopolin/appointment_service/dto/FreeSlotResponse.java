@@ -0,0 +1,21 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotResponse {
+    private Long officeId;
+    private String officeName;
+    private LocalDate date;
+    private int slotIndex;
+    private LocalTime start;
+}
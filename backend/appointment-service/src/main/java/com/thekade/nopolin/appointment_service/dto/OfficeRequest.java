@@ -0,0 +1,23 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import java.time.LocalTime;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficeRequest {
+    private String name;
+    private LocalTime opensAt;
+    private LocalTime closesAt;
+    private int slotMinutes;
+    /** Bookings each slot can take. */
+    private int counters;
+    private Set<String> services;
+}
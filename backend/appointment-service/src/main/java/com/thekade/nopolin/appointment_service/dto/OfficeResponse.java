@@ -0,0 +1,24 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import java.time.LocalTime;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficeResponse {
+    private Long id;
+    private String name;
+    private LocalTime opensAt;
+    private LocalTime closesAt;
+    private int slotMinutes;
+    private int counters;
+    private Set<String> services;
+    private int slotCount;
+}
@@ -0,0 +1,19 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatusResponse {
+    private Long officeId;
+    private int counter;
+    private long nowServing;
+    private long lastIssued;
+    private long waiting;
+    private double averageServiceSeconds;
+}
@@ -0,0 +1,20 @@
+package com.thekade.nopolin.appointment_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueTicketResponse {
+    private Long officeId;
+    private int counter;
+    private long ticket;
+    private long nowServing;
+    /** 1 when the ticket is next, 0 once it has been called. */
+    private long position;
+    private long estimatedWaitSeconds;
+}
@@ -0,0 +1,65 @@
+package com.thekade.nopolin.appointment_service.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slot taken at an office on a day. Rows are written behind the in-memory
+ * slot inventory, which is rebuilt from the confirmed rows after a restart.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_office_date", columnList = "office_id, booking_date"),
+        @Index(name = "idx_bookings_citizen", columnList = "citizen")
+})
+public class Booking {
+
+    /** Assigned by the service when the slot is taken, before the row exists. */
+    @Id
+    @Column(name = "booking_id")
+    private UUID id;
+
+    @Column(name = "office_id", nullable = false)
+    private Long officeId;
+
+    @Column(name = "booking_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "slot_index", nullable = false)
+    private int slotIndex;
+
+    /** Subject of the booking citizen's access token. */
+    @Column(name = "citizen", nullable = false)
+    private String citizen;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private BookingStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "cancelled_at")
+    private Instant cancelledAt;
+
+    /** Set for holds only. */
+    @Column(name = "hold_expires_at")
+    private Instant holdExpiresAt;
+}
@@ -0,0 +1,10 @@
+package com.thekade.nopolin.appointment_service.entity;
+
+public enum BookingStatus {
+    /** Slot set aside until {@code holdExpiresAt} while the citizen confirms. */
+    HELD,
+    CONFIRMED,
+    CANCELLED,
+    /** A hold that was not confirmed in time. */
+    EXPIRED
+}
@@ -0,0 +1,73 @@
+package com.thekade.nopolin.appointment_service.entity;
+
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A service office and its daily timetable: the opening hours are cut into
+ * slots of {@code slotMinutes}, each of which can take one booking per
+ * counter.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "offices")
+public class Office {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "office_id")
+    private Long id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "opens_at", nullable = false)
+    private LocalTime opensAt;
+
+    @Column(name = "closes_at", nullable = false)
+    private LocalTime closesAt;
+
+    @Column(name = "slot_minutes", nullable = false)
+    private int slotMinutes;
+
+    @Column(name = "counters", nullable = false)
+    private int counters;
+
+    /** Services handled here, e.g. {@code LICENSE_RENEWAL}; every counter handles all of them. */
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "office_services", joinColumns = @JoinColumn(name = "office_id"))
+    @Column(name = "service", nullable = false, length = 64)
+    private Set<String> services = new HashSet<>();
+
+    public int slotCount() {
+        return (closesAt.toSecondOfDay() - opensAt.toSecondOfDay()) / 60 / slotMinutes;
+    }
+
+    public boolean offers(String service) {
+        return services.contains(service);
+    }
+
+    public LocalTime slotStart(int slotIndex) {
+        return opensAt.plusMinutes((long) slotIndex * slotMinutes);
+    }
+}
@@ -0,0 +1,18 @@
+package com.thekade.nopolin.appointment_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when bookings are being accepted faster than they can be persisted
+ * and the write-behind queue is full; the slot has been given back.
+ */
+@Getter
+public class BookingBacklogException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BookingBacklogException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
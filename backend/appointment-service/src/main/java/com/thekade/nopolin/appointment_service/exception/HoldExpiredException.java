@@ -0,0 +1,12 @@
+package com.thekade.nopolin.appointment_service.exception;
+
+/**
+ * Thrown when a hold is confirmed after it ran out; its slot has been given
+ * back and may already be taken by someone else.
+ */
+public class HoldExpiredException extends RuntimeException {
+
+    public HoldExpiredException(String message) {
+        super(message);
+    }
+}
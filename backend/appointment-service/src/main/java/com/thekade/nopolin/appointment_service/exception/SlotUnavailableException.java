@@ -0,0 +1,11 @@
+package com.thekade.nopolin.appointment_service.exception;
+
+/**
+ * Thrown when the requested slot has no capacity left.
+ */
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
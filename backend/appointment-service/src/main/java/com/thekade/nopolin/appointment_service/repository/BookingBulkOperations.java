@@ -0,0 +1,34 @@
+package com.thekade.nopolin.appointment_service.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+
+/**
+ * Batched writes and aggregate reads on the bookings table that bypass the
+ * persistence context. Implemented with plain JDBC in
+ * {@link BookingBulkOperationsImpl}.
+ */
+public interface BookingBulkOperations {
+
+    /**
+     * Inserts the bookings in one JDBC batch. Rows whose id already exists are
+     * skipped, so a batch can be retried after a partial failure.
+     */
+    void insertBatch(List<Booking> bookings);
+
+    /**
+     * Moves held bookings to their new status in one JDBC batch. Bookings no
+     * longer {@code HELD} are left alone, so a batch can be retried.
+     */
+    void updateHeldBatch(List<BookingStatusChange> changes);
+
+    /**
+     * Bookings taking capacity per slot of one office and day (confirmed
+     * bookings and unexpired holds), with one aggregate query.
+     *
+     * @return an array of {@code slotCount} counts indexed by slot
+     */
+    int[] countTakenBySlot(long officeId, LocalDate date, int slotCount);
+}
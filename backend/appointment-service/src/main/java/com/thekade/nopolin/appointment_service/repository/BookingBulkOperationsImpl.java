@@ -0,0 +1,66 @@
+package com.thekade.nopolin.appointment_service.repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class BookingBulkOperationsImpl implements BookingBulkOperations {
+
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (booking_id, office_id, booking_date, slot_index, citizen, status, created_at, "
+            + "hold_expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (booking_id) DO NOTHING";
+
+    private static final String UPDATE_HELD =
+            "UPDATE bookings SET status = ?, cancelled_at = ? WHERE booking_id = ? AND status = 'HELD'";
+
+    private static final String COUNT_TAKEN =
+            "SELECT slot_index, count(*) FROM bookings "
+            + "WHERE office_id = ? AND booking_date = ? "
+            + "AND (status = 'CONFIRMED' OR (status = 'HELD' AND hold_expires_at > now())) GROUP BY slot_index";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<Booking> bookings) {
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, bookings, bookings.size(), (ps, booking) -> {
+            ps.setObject(1, booking.getId());
+            ps.setLong(2, booking.getOfficeId());
+            ps.setDate(3, Date.valueOf(booking.getDate()));
+            ps.setInt(4, booking.getSlotIndex());
+            ps.setString(5, booking.getCitizen());
+            ps.setString(6, (booking.getStatus() != null ? booking.getStatus() : BookingStatus.CONFIRMED).name());
+            ps.setTimestamp(7, Timestamp.from(booking.getCreatedAt()));
+            ps.setTimestamp(8, booking.getHoldExpiresAt() != null ? Timestamp.from(booking.getHoldExpiresAt()) : null);
+        });
+    }
+
+    @Override
+    public void updateHeldBatch(List<BookingStatusChange> changes) {
+        jdbcTemplate.batchUpdate(UPDATE_HELD, changes, changes.size(), (ps, change) -> {
+            ps.setString(1, change.status().name());
+            ps.setTimestamp(2, change.cancelledAt() != null ? Timestamp.from(change.cancelledAt()) : null);
+            ps.setObject(3, change.bookingId());
+        });
+    }
+
+    @Override
+    public int[] countTakenBySlot(long officeId, LocalDate date, int slotCount) {
+        int[] counts = new int[slotCount];
+        jdbcTemplate.query(COUNT_TAKEN, rs -> {
+            int slot = rs.getInt(1);
+            if (slot >= 0 && slot < slotCount) {
+                counts[slot] = rs.getInt(2);
+            }
+        }, officeId, Date.valueOf(date));
+        return counts;
+    }
+}
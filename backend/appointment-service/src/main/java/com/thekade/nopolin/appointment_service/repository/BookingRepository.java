@@ -0,0 +1,34 @@
+package com.thekade.nopolin.appointment_service.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+
+public interface BookingRepository extends JpaRepository<Booking, UUID>, BookingBulkOperations {
+
+    /** @return 1 if this call cancelled the booking, 0 if it was already cancelled or does not exist */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE bookings SET status = 'CANCELLED', cancelled_at = :cancelledAt "
+            + "WHERE booking_id = :id AND status = 'CONFIRMED'",
+            nativeQuery = true)
+    int cancel(@Param("id") UUID id, @Param("cancelledAt") Instant cancelledAt);
+
+    List<Booking> findByStatusAndHoldExpiresAtAfter(BookingStatus status, Instant after);
+
+    /** Expires holds whose deadline passed while no instance was tracking them. */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE bookings SET status = 'EXPIRED' WHERE status = 'HELD' AND hold_expires_at <= :now",
+            nativeQuery = true)
+    int expireHeldBefore(@Param("now") Instant now);
+}
@@ -0,0 +1,10 @@
+package com.thekade.nopolin.appointment_service.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+
+/** A held booking's move to {@code status}; {@code cancelledAt} is set for cancellations only. */
+public record BookingStatusChange(UUID bookingId, BookingStatus status, Instant cancelledAt) {
+}
@@ -0,0 +1,8 @@
+package com.thekade.nopolin.appointment_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.thekade.nopolin.appointment_service.entity.Office;
+
+public interface OfficeRepository extends JpaRepository<Office, Long> {
+}
@@ -0,0 +1,256 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.thekade.nopolin.appointment_service.dto.BookingRequest;
+import com.thekade.nopolin.appointment_service.dto.BookingResponse;
+import com.thekade.nopolin.appointment_service.dto.DayAvailabilityResponse;
+import com.thekade.nopolin.appointment_service.dto.FreeSlotResponse;
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+import com.thekade.nopolin.appointment_service.entity.Office;
+import com.thekade.nopolin.appointment_service.exception.BookingBacklogException;
+import com.thekade.nopolin.appointment_service.exception.SlotUnavailableException;
+import com.thekade.nopolin.appointment_service.repository.BookingRepository;
+import com.thekade.nopolin.appointment_service.service.SlotInventory.OfficeDay;
+
+/**
+ * Books office slots against the in-memory {@link SlotInventory} and hands
+ * confirmed bookings to {@link BookingWriteBehind}; no database access happens
+ * on the booking path once an office day is loaded. Cancellation is rare and
+ * goes to the database directly, which also makes it safe against two
+ * concurrent cancels of the same booking.
+ */
+@Service
+public class BookingService {
+
+    private static final int MAX_FREE_SLOTS = 50;
+    private static final Comparator<FreeSlotResponse> EARLIEST_FIRST = Comparator
+            .comparing(FreeSlotResponse::getStart)
+            .thenComparing(FreeSlotResponse::getOfficeId);
+
+    private final OfficeService officeService;
+    private final SlotInventory inventory;
+    private final BookingWriteBehind writeBehind;
+    private final HoldService holdService;
+    private final BookingRepository bookingRepository;
+    private final ZoneId zone;
+    private final int horizonDays;
+
+    public BookingService(
+            OfficeService officeService,
+            SlotInventory inventory,
+            BookingWriteBehind writeBehind,
+            HoldService holdService,
+            BookingRepository bookingRepository,
+            @Value("${appointments.zone:Asia/Colombo}") ZoneId zone,
+            @Value("${appointments.booking.horizon-days:30}") int horizonDays) {
+        this.officeService = officeService;
+        this.inventory = inventory;
+        this.writeBehind = writeBehind;
+        this.holdService = holdService;
+        this.bookingRepository = bookingRepository;
+        this.zone = zone;
+        this.horizonDays = horizonDays;
+    }
+
+    public BookingResponse book(String citizen, BookingRequest request) {
+        return take(citizen, request, null);
+    }
+
+    /**
+     * Sets a slot aside for {@code citizen} until it is confirmed with
+     * {@link #confirm} or the hold runs out.
+     */
+    public BookingResponse hold(String citizen, BookingRequest request) {
+        return take(citizen, request, Instant.now().plus(holdService.holdDuration()));
+    }
+
+    public BookingResponse confirm(UUID bookingId, String citizen) {
+        Booking confirmed = holdService.confirm(bookingId, citizen).toBuilder()
+                .status(BookingStatus.CONFIRMED)
+                .build();
+        return toResponse(officeService.get(confirmed.getOfficeId()), confirmed);
+    }
+
+    private BookingResponse take(String citizen, BookingRequest request, Instant holdExpiresAt) {
+        Office office = officeService.get(request.getOfficeId());
+        LocalDate date = checkBookable(request.getDate());
+        OfficeDay day = new OfficeDay(office.getId(), date);
+        if (!inventory.tryReserve(day, request.getSlotIndex(), office.getCounters(), taken(office, date))) {
+            throw new SlotUnavailableException("Slot " + request.getSlotIndex() + " on " + date + " is fully booked");
+        }
+        Booking booking = Booking.builder()
+                .id(newBookingId())
+                .officeId(office.getId())
+                .date(date)
+                .slotIndex(request.getSlotIndex())
+                .citizen(citizen)
+                .status(holdExpiresAt == null ? BookingStatus.CONFIRMED : BookingStatus.HELD)
+                .createdAt(Instant.now())
+                .holdExpiresAt(holdExpiresAt)
+                .build();
+        if (!writeBehind.submit(booking)) {
+            inventory.release(day, request.getSlotIndex());
+            throw new BookingBacklogException("Too many bookings are waiting to be saved", 1);
+        }
+        if (holdExpiresAt != null) {
+            holdService.track(booking);
+        }
+        return toResponse(office, booking);
+    }
+
+    /**
+     * Cancels a booking of {@code citizen}, or of anyone when
+     * {@code privileged}; cancelling twice is a no-op.
+     */
+    public void cancel(UUID bookingId, String citizen, boolean privileged) {
+        if (holdService.cancel(bookingId, citizen, privileged)) {
+            return;
+        }
+        if (writeBehind.isPending(bookingId)) {
+            writeBehind.flush();
+        }
+        Booking booking = bookingRepository.findById(bookingId)
+                .filter(found -> privileged || found.getCitizen().equals(citizen))
+                .orElseThrow(() -> new IllegalArgumentException("Unknown booking: " + bookingId));
+        if (bookingRepository.cancel(bookingId, Instant.now()) == 1) {
+            inventory.release(new OfficeDay(booking.getOfficeId(), booking.getDate()), booking.getSlotIndex());
+        }
+    }
+
+    public DayAvailabilityResponse availability(Long officeId, LocalDate date) {
+        Office office = officeService.get(officeId);
+        checkBookable(date);
+        int[] remaining = inventory.remaining(new OfficeDay(office.getId(), date), office.getCounters(),
+                taken(office, date));
+        List<DayAvailabilityResponse.Slot> slots = new ArrayList<>(remaining.length);
+        for (int slot = 0; slot < remaining.length; slot++) {
+            slots.add(new DayAvailabilityResponse.Slot(slot, office.slotStart(slot), remaining[slot]));
+        }
+        return DayAvailabilityResponse.builder()
+                .officeId(office.getId())
+                .date(date)
+                .slots(slots)
+                .build();
+    }
+
+    /**
+     * The earliest slots with capacity left at any of the given offices (or at
+     * every office handling {@code service}) between {@code from} and
+     * {@code to}, earliest first. Days are read from the inventory's free-slot
+     * bitsets, loading each office day from Postgres the first time only.
+     */
+    public List<FreeSlotResponse> earliestFree(String service, List<Long> officeIds, LocalDate from, LocalDate to,
+            int limit) {
+        if (limit < 1 || limit > MAX_FREE_SLOTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_FREE_SLOTS);
+        }
+        List<Office> offices;
+        if (officeIds == null || officeIds.isEmpty()) {
+            offices = officeService.offering(service);
+        } else {
+            String wanted = service == null ? null : OfficeService.normalizeService(service);
+            offices = officeIds.stream()
+                    .distinct()
+                    .map(officeService::get)
+                    .filter(office -> wanted == null || office.offers(wanted))
+                    .toList();
+        }
+        LocalDate today = LocalDate.now(zone);
+        LocalDate first = from == null || from.isBefore(today) ? today : from;
+        LocalDate last = to == null || to.isAfter(today.plusDays(horizonDays)) ? today.plusDays(horizonDays) : to;
+        LocalTime now = LocalTime.now(zone);
+
+        List<FreeSlotResponse> found = new ArrayList<>(limit);
+        for (LocalDate date = first; !date.isAfter(last) && found.size() < limit; date = date.plusDays(1)) {
+            int wanted = limit - found.size();
+            List<FreeSlotResponse> day = new ArrayList<>();
+            for (Office office : offices) {
+                long[] free = inventory.freeSlots(new OfficeDay(office.getId(), date), office.getCounters(),
+                        taken(office, date));
+                // Slots of one office come out in time order, so no office needs to give more than `wanted`.
+                int fromOffice = 0;
+                for (int word = 0; word < free.length && fromOffice < wanted; word++) {
+                    for (long bits = free[word]; bits != 0 && fromOffice < wanted; bits &= bits - 1) {
+                        int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                        LocalTime start = office.slotStart(slot);
+                        if (date.equals(today) && !start.isAfter(now)) {
+                            continue;
+                        }
+                        day.add(FreeSlotResponse.builder()
+                                .officeId(office.getId())
+                                .officeName(office.getName())
+                                .date(date)
+                                .slotIndex(slot)
+                                .start(start)
+                                .build());
+                        fromOffice++;
+                    }
+                }
+            }
+            day.sort(EARLIEST_FIRST);
+            found.addAll(day.subList(0, Math.min(wanted, day.size())));
+        }
+        return found;
+    }
+
+    /** Past days can no longer be booked or cancelled into; free their counters. */
+    @Scheduled(cron = "${appointments.inventory.evict-cron:0 5 0 * * *}", zone = "${appointments.zone:Asia/Colombo}")
+    public void evictPastDays() {
+        inventory.evictBefore(LocalDate.now(zone));
+    }
+
+    private Supplier<int[]> taken(Office office, LocalDate date) {
+        return () -> bookingRepository.countTakenBySlot(office.getId(), date, office.slotCount());
+    }
+
+    private LocalDate checkBookable(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("date is required");
+        }
+        LocalDate today = LocalDate.now(zone);
+        if (date.isBefore(today) || date.isAfter(today.plusDays(horizonDays))) {
+            throw new IllegalArgumentException("date must be between " + today + " and " + today.plusDays(horizonDays));
+        }
+        return date;
+    }
+
+    /**
+     * A time-ordered (version 7) UUID, so inserts land at the right edge of the
+     * primary key index; built from ThreadLocalRandom, which unlike
+     * {@link UUID#randomUUID()} shares no lock between request threads.
+     */
+    private static UUID newBookingId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static BookingResponse toResponse(Office office, Booking booking) {
+        return BookingResponse.builder()
+                .id(booking.getId())
+                .officeId(booking.getOfficeId())
+                .date(booking.getDate())
+                .slotIndex(booking.getSlotIndex())
+                .slotStart(office.slotStart(booking.getSlotIndex()))
+                .status(booking.getStatus())
+                .createdAt(booking.getCreatedAt())
+                .holdExpiresAt(booking.getHoldExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.repository.BookingRepository;
+import com.thekade.nopolin.appointment_service.repository.BookingStatusChange;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Inserts confirmed bookings after the slot inventory has accepted them, in
+ * batches on a background thread, so the request path never waits for
+ * Postgres. The queue is bounded; when it is full {@link #submit} refuses the
+ * booking and the caller must give the slot back. A batch that fails is
+ * inserted again row by row: a row the database rejects as invalid is logged
+ * and dropped as a dead letter, so it cannot hold up the rows behind it, and
+ * on any other failure the remaining rows are retried on the next flush.
+ * Whatever is still queued is written on shutdown.
+ *
+ * <p>Holds are inserted the same way, and their later confirmation, expiry
+ * or cancellation is queued with {@link #submitStatusChange} and written in
+ * batches after the inserts of the same flush.
+ */
+@Component
+public class BookingWriteBehind {
+
+    private static final Logger LOGGER = Logger.getLogger(BookingWriteBehind.class.getName());
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final LinkedBlockingQueue<Booking> queue;
+    private final Map<UUID, Booking> unflushed = new ConcurrentHashMap<>();
+    private volatile List<Booking> failedBatch = List.of();
+    // Unbounded, but each hold adds at most one change and holds are bounded by slot capacity.
+    private final ConcurrentLinkedQueue<BookingStatusChange> statusChanges = new ConcurrentLinkedQueue<>();
+    private volatile List<BookingStatusChange> failedChanges = List.of();
+    private final Set<UUID> unflushedChanges = ConcurrentHashMap.newKeySet();
+    private final Counter deadLetters;
+
+    public BookingWriteBehind(
+            BookingRepository bookingRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${appointments.write-behind.capacity:100000}") int capacity,
+            @Value("${appointments.write-behind.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        Gauge.builder("appointments.write_behind.pending", this, BookingWriteBehind::backlog)
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("appointments.write_behind.dead_letters").register(meterRegistry);
+    }
+
+    /** @return false if the backlog is full and the booking was not accepted */
+    public boolean submit(Booking booking) {
+        unflushed.put(booking.getId(), booking);
+        if (queue.offer(booking)) {
+            return true;
+        }
+        unflushed.remove(booking.getId());
+        return false;
+    }
+
+    public void submitStatusChange(BookingStatusChange change) {
+        unflushedChanges.add(change.bookingId());
+        statusChanges.add(change);
+    }
+
+    /** Whether the booking, or a change to its status, has been accepted but not yet written. */
+    public boolean isPending(UUID bookingId) {
+        return unflushed.containsKey(bookingId) || unflushedChanges.contains(bookingId);
+    }
+
+    public int backlog() {
+        return queue.size() + failedBatch.size() + statusChanges.size() + failedChanges.size();
+    }
+
+    @Scheduled(
+            initialDelayString = "${appointments.write-behind.flush-interval:PT0.2S}",
+            fixedDelayString = "${appointments.write-behind.flush-interval:PT0.2S}")
+    public synchronized void flush() {
+        // Taken before the inserts, so the rows these changes update are in this flush's inserts or earlier ones.
+        List<BookingStatusChange> changes = new ArrayList<>(failedChanges);
+        for (BookingStatusChange change; (change = statusChanges.poll()) != null; ) {
+            changes.add(change);
+        }
+        failedChanges = List.of();
+        if (!flushInserts()) {
+            failedChanges = changes;
+            return;
+        }
+        for (int from = 0; from < changes.size(); from += batchSize) {
+            List<BookingStatusChange> batch = changes.subList(from, Math.min(changes.size(), from + batchSize));
+            try {
+                transaction.executeWithoutResult(status -> bookingRepository.updateHeldBatch(batch));
+            } catch (DataAccessException | TransactionException e) {
+                failedChanges = List.copyOf(changes.subList(from, changes.size()));
+                LOGGER.log(Level.WARNING, "Could not persist " + failedChanges.size() + " hold updates, will retry", e);
+                return;
+            }
+            for (BookingStatusChange change : batch) {
+                unflushedChanges.remove(change.bookingId());
+            }
+        }
+    }
+
+    /** @return false if a batch failed and is left for the next flush */
+    private boolean flushInserts() {
+        while (true) {
+            List<Booking> batch = failedBatch;
+            if (batch.isEmpty()) {
+                batch = new ArrayList<>(batchSize);
+                queue.drainTo(batch, batchSize);
+            }
+            if (batch.isEmpty()) {
+                return true;
+            }
+            List<Booking> rows = batch;
+            try {
+                // One commit per batch rather than per row.
+                transaction.executeWithoutResult(status -> bookingRepository.insertBatch(rows));
+            } catch (DataAccessException | TransactionException e) {
+                List<Booking> left = insertOneByOne(batch);
+                if (!left.isEmpty()) {
+                    failedBatch = left;
+                    return false;
+                }
+            }
+            failedBatch = List.of();
+            for (Booking booking : batch) {
+                unflushed.remove(booking.getId());
+            }
+            if (batch.size() < batchSize) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Isolates the rows that failed a batch. Rows already inserted are skipped
+     * by the insert, so a retried batch may overlap them.
+     *
+     * @return the rows left for the next flush after a failure that is not the row's fault
+     */
+    private List<Booking> insertOneByOne(List<Booking> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Booking booking = batch.get(i);
+            try {
+                transaction.executeWithoutResult(status -> bookingRepository.insertBatch(List.of(booking)));
+            } catch (DataIntegrityViolationException e) {
+                // Its slot stays taken in the inventory until the office day is next loaded.
+                deadLetters.increment();
+                LOGGER.log(Level.SEVERE, "Dropping booking " + booking.getId() + " of office "
+                        + booking.getOfficeId() + " on " + booking.getDate() + ", slot " + booking.getSlotIndex()
+                        + ": rejected by the database", e);
+            } catch (DataAccessException | TransactionException e) {
+                List<Booking> left = List.copyOf(batch.subList(i, batch.size()));
+                LOGGER.log(Level.WARNING, "Could not persist " + left.size() + " bookings, will retry", e);
+                return left;
+            }
+        }
+        return List.of();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        if (backlog() > 0) {
+            LOGGER.severe(backlog() + " bookings could not be persisted before shutdown");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The virtual queue of one office counter. Tickets are numbered by a single
+ * atomic increment of {@code lastIssued}; the counter calls them in order by
+ * advancing {@code nowServing}. A ticket's position is the difference of the
+ * two, so it is known in O(1). The only per-ticket state is who holds each
+ * ticket still waiting, so a citizen has at most one and only they follow it;
+ * it is dropped as the ticket is called.
+ */
+public final class CounterQueue {
+
+    private static final double SMOOTHING = 0.2;
+    /** Gaps longer than this many average services (a break, the office closing) do not count. */
+    private static final double MAX_GAP = 10;
+
+    private final AtomicLong lastIssued = new AtomicLong();
+    private volatile long nowServing;
+    private volatile double averageServiceSeconds;
+    private long lastCalledAt = Long.MIN_VALUE;
+    private final Map<Long, String> holders = new ConcurrentHashMap<>();
+    private final Map<String, Long> waitingTickets = new ConcurrentHashMap<>();
+
+    /** @param expectedServiceSeconds estimate used until the counter has called a few tickets */
+    public CounterQueue(double expectedServiceSeconds) {
+        this.averageServiceSeconds = expectedServiceSeconds;
+    }
+
+    /** Issues {@code citizen} a ticket, or returns the one they are still waiting with. */
+    public long issue(String citizen) {
+        long ticket = waitingTickets.computeIfAbsent(citizen, c -> {
+            long issued = lastIssued.incrementAndGet();
+            holders.put(issued, c);
+            return issued;
+        });
+        // Called before it was recorded as waiting: callNext could not release it.
+        if (ticket <= nowServing) {
+            waitingTickets.remove(citizen, ticket);
+        }
+        return ticket;
+    }
+
+    /** The citizen waiting with {@code ticket}, or null once it has been called. */
+    public String holder(long ticket) {
+        return holders.get(ticket);
+    }
+
+    /**
+     * Calls the next ticket and learns the counter's pace from the time since
+     * the previous call.
+     *
+     * @return the ticket called, or 0 if nobody is waiting
+     */
+    public synchronized long callNext(long nowMillis) {
+        if (nowServing >= lastIssued.get()) {
+            return 0;
+        }
+        if (lastCalledAt != Long.MIN_VALUE) {
+            double gap = (nowMillis - lastCalledAt) / 1000.0;
+            if (gap >= 0 && gap <= MAX_GAP * averageServiceSeconds) {
+                averageServiceSeconds += SMOOTHING * (gap - averageServiceSeconds);
+            }
+        }
+        lastCalledAt = nowMillis;
+        long called = ++nowServing;
+        String holder = holders.remove(called);
+        if (holder != null) {
+            waitingTickets.remove(holder, called);
+        }
+        return called;
+    }
+
+    public long nowServing() {
+        return nowServing;
+    }
+
+    public long lastIssued() {
+        return lastIssued.get();
+    }
+
+    public long waiting() {
+        return lastIssued.get() - nowServing;
+    }
+
+    /** 1 when the ticket is next, 0 once it has been called. */
+    public long position(long ticket) {
+        return Math.max(0, ticket - nowServing);
+    }
+
+    public long estimatedWaitSeconds(long ticket) {
+        return Math.round(Math.max(0, position(ticket) - 1) * averageServiceSeconds);
+    }
+
+    public double averageServiceSeconds() {
+        return averageServiceSeconds;
+    }
+}
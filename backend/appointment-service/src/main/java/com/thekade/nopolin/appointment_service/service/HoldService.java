@@ -0,0 +1,168 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+import com.thekade.nopolin.appointment_service.exception.HoldExpiredException;
+import com.thekade.nopolin.appointment_service.repository.BookingRepository;
+import com.thekade.nopolin.appointment_service.repository.BookingStatusChange;
+import com.thekade.nopolin.appointment_service.service.SlotInventory.OfficeDay;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Slots set aside for a few minutes while a citizen confirms. Every hold has
+ * one timer in a {@link TimingWheel}; when it fires before the hold was
+ * confirmed or cancelled, the slot goes back to the inventory and the
+ * booking is marked expired through the write-behind.
+ *
+ * <p>Confirmation, cancellation and expiry race by removing the hold from
+ * {@code holds}; only the one that removes it acts, so the slot is released
+ * at most once. Timers of holds that were confirmed simply find nothing.
+ */
+@Service
+public class HoldService {
+
+    private static final Logger LOGGER = Logger.getLogger(HoldService.class.getName());
+
+    private record Hold(Booking booking, OfficeDay day) {
+
+        UUID id() {
+            return booking.getId();
+        }
+
+        Instant expiresAt() {
+            return booking.getHoldExpiresAt();
+        }
+    }
+
+    private final SlotInventory inventory;
+    private final BookingWriteBehind writeBehind;
+    private final BookingRepository bookingRepository;
+    private final Duration holdDuration;
+    private final TimingWheel<Hold> timers;
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+    private final Counter expired;
+
+    public HoldService(
+            SlotInventory inventory,
+            BookingWriteBehind writeBehind,
+            BookingRepository bookingRepository,
+            MeterRegistry meterRegistry,
+            @Value("${appointments.holds.duration:PT5M}") Duration holdDuration,
+            @Value("${appointments.holds.tick:PT0.1S}") Duration tick) {
+        this.inventory = inventory;
+        this.writeBehind = writeBehind;
+        this.bookingRepository = bookingRepository;
+        this.holdDuration = holdDuration;
+        this.timers = new TimingWheel<>(tick.toMillis(), System.currentTimeMillis());
+        Gauge.builder("appointments.holds.active", holds, Map::size).register(meterRegistry);
+        this.expired = Counter.builder("appointments.holds.expired").register(meterRegistry);
+    }
+
+    public Duration holdDuration() {
+        return holdDuration;
+    }
+
+    /** Starts tracking a hold whose slot is already taken and whose row has been submitted. */
+    public void track(Booking booking) {
+        Hold hold = new Hold(booking, new OfficeDay(booking.getOfficeId(), booking.getDate()));
+        holds.put(hold.id(), hold);
+        timers.schedule(hold, hold.expiresAt().toEpochMilli());
+    }
+
+    /**
+     * Confirms a hold of {@code citizen}.
+     *
+     * @return the booking as it was held
+     * @throws IllegalArgumentException if there is no such hold
+     * @throws HoldExpiredException if the hold ran out first
+     */
+    public Booking confirm(UUID bookingId, String citizen) {
+        Hold hold = holds.get(bookingId);
+        if (hold == null || !hold.booking().getCitizen().equals(citizen)) {
+            throw new IllegalArgumentException("Unknown hold: " + bookingId);
+        }
+        if (!holds.remove(bookingId, hold)) {
+            throw new HoldExpiredException("Hold " + bookingId + " is no longer active");
+        }
+        Instant now = Instant.now();
+        if (!now.isBefore(hold.expiresAt())) {
+            // Due but its tick has not run yet; it is ours to expire now.
+            release(hold, BookingStatus.EXPIRED, null);
+            throw new HoldExpiredException("Hold " + bookingId + " expired at " + hold.expiresAt());
+        }
+        writeBehind.submitStatusChange(new BookingStatusChange(bookingId, BookingStatus.CONFIRMED, null));
+        return hold.booking();
+    }
+
+    /**
+     * Cancels a hold of {@code citizen}, or of anyone when {@code privileged}.
+     *
+     * @return false if there is no such active hold
+     */
+    public boolean cancel(UUID bookingId, String citizen, boolean privileged) {
+        Hold hold = holds.get(bookingId);
+        if (hold == null || !(privileged || hold.booking().getCitizen().equals(citizen))
+                || !holds.remove(bookingId, hold)) {
+            return false;
+        }
+        release(hold, BookingStatus.CANCELLED, Instant.now());
+        return true;
+    }
+
+    @Scheduled(
+            initialDelayString = "${appointments.holds.tick:PT0.1S}",
+            fixedDelayString = "${appointments.holds.tick:PT0.1S}")
+    public void expireDue() {
+        timers.advance(System.currentTimeMillis(), hold -> {
+            if (!holds.remove(hold.id(), hold)) {
+                return;
+            }
+            try {
+                release(hold, BookingStatus.EXPIRED, null);
+                expired.increment();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not expire hold " + hold.id(), e);
+            }
+        });
+    }
+
+    /**
+     * Holds do not survive a restart in memory: expire those whose time ran
+     * out meanwhile and start timers again for the rest.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Instant now = Instant.now();
+        int stale = bookingRepository.expireHeldBefore(now);
+        int resumed = 0;
+        for (Booking booking : bookingRepository.findByStatusAndHoldExpiresAtAfter(BookingStatus.HELD, now)) {
+            track(booking);
+            resumed++;
+        }
+        if (stale > 0 || resumed > 0) {
+            LOGGER.info("Expired " + stale + " stale holds, resumed " + resumed);
+        }
+    }
+
+    private void release(Hold hold, BookingStatus status, Instant cancelledAt) {
+        inventory.release(hold.day(), hold.booking().getSlotIndex());
+        writeBehind.submitStatusChange(new BookingStatusChange(hold.id(), status, cancelledAt));
+    }
+}
@@ -0,0 +1,128 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.thekade.nopolin.appointment_service.dto.OfficeRequest;
+import com.thekade.nopolin.appointment_service.dto.OfficeResponse;
+import com.thekade.nopolin.appointment_service.entity.Office;
+import com.thekade.nopolin.appointment_service.repository.OfficeRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Offices and their timetables. Timetables do not change once created, so
+ * offices are cached after the first read and booking never queries them.
+ */
+@Service
+@RequiredArgsConstructor
+public class OfficeService {
+
+    private static final int MAX_SLOT_MINUTES = 240;
+
+    private final OfficeRepository officeRepository;
+    private final Map<Long, Office> offices = new ConcurrentHashMap<>();
+    private volatile boolean allCached;
+
+    public OfficeResponse create(OfficeRequest request) {
+        validate(request);
+        Office office = officeRepository.save(Office.builder()
+                .name(request.getName().trim())
+                .opensAt(request.getOpensAt())
+                .closesAt(request.getClosesAt())
+                .slotMinutes(request.getSlotMinutes())
+                .counters(request.getCounters())
+                .services(normalizeServices(request.getServices()))
+                .build());
+        offices.put(office.getId(), office);
+        return toResponse(office);
+    }
+
+    public List<OfficeResponse> list() {
+        return officeRepository.findAll().stream().map(OfficeService::toResponse).toList();
+    }
+
+    public Office get(Long officeId) {
+        if (officeId == null) {
+            throw new IllegalArgumentException("officeId is required");
+        }
+        Office office = offices.get(officeId);
+        if (office != null) {
+            return office;
+        }
+        office = officeRepository.findById(officeId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown office: " + officeId));
+        offices.putIfAbsent(officeId, office);
+        return office;
+    }
+
+    /** Offices handling {@code service}, or all offices when it is null. */
+    public List<Office> offering(String service) {
+        String wanted = service == null ? null : normalizeService(service);
+        return all().stream()
+                .filter(office -> wanted == null || office.offers(wanted))
+                .toList();
+    }
+
+    public static String normalizeService(String service) {
+        if (service == null || service.isBlank()) {
+            throw new IllegalArgumentException("service must not be blank");
+        }
+        return service.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private Collection<Office> all() {
+        if (!allCached) {
+            officeRepository.findAll().forEach(office -> offices.putIfAbsent(office.getId(), office));
+            allCached = true;
+        }
+        return offices.values();
+    }
+
+    private static Set<String> normalizeServices(Set<String> services) {
+        return services.stream().map(OfficeService::normalizeService).collect(Collectors.toSet());
+    }
+
+    private static void validate(OfficeRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (request.getOpensAt() == null || request.getClosesAt() == null
+                || !request.getOpensAt().isBefore(request.getClosesAt())) {
+            throw new IllegalArgumentException("opensAt must be before closesAt");
+        }
+        if (request.getSlotMinutes() < 1 || request.getSlotMinutes() > MAX_SLOT_MINUTES) {
+            throw new IllegalArgumentException("slotMinutes must be between 1 and " + MAX_SLOT_MINUTES);
+        }
+        if (request.getCounters() < 1) {
+            throw new IllegalArgumentException("counters must be at least 1");
+        }
+        if (request.getServices() == null || request.getServices().isEmpty()) {
+            throw new IllegalArgumentException("services must name at least one service");
+        }
+        int openMinutes = (request.getClosesAt().toSecondOfDay() - request.getOpensAt().toSecondOfDay()) / 60;
+        if (openMinutes < request.getSlotMinutes()) {
+            throw new IllegalArgumentException("Opening hours are shorter than one slot");
+        }
+    }
+
+    private static OfficeResponse toResponse(Office office) {
+        return OfficeResponse.builder()
+                .id(office.getId())
+                .name(office.getName())
+                .opensAt(office.getOpensAt())
+                .closesAt(office.getClosesAt())
+                .slotMinutes(office.getSlotMinutes())
+                .counters(office.getCounters())
+                .services(Set.copyOf(office.getServices()))
+                .slotCount(office.slotCount())
+                .build();
+    }
+}
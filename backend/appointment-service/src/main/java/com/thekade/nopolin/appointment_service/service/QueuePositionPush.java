@@ -0,0 +1,286 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.thekade.nopolin.appointment_service.dto.QueueTicketResponse;
+import com.thekade.nopolin.appointment_service.service.QueueService.CounterKey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes queue positions to waiting clients over Server-Sent Events. Streams
+ * are async, so an idle client costs a registered emitter rather than a
+ * thread. Once per push interval every counter whose queue moved sends one
+ * event to each of its followers, however many tickets were called in the
+ * meantime; the sends run on a small fixed pool.
+ *
+ * <p>A client that is still being written its previous event at the next push
+ * is skipped, and after {@code max-missed-pushes} skips in a row its stream is
+ * closed, so slow phones cannot build up a backlog. An event still waiting for
+ * a sender is not the client's fault and is not counted against it.
+ *
+ * <p>Sends are blocking servlet writes. One that runs past {@code send-timeout}
+ * is given up on: its stream is closed, its sender is interrupted, and the pool
+ * grows by a thread until the write returns (the container's write timeout
+ * bounds it), so a few stalled phones cannot starve everybody else.
+ */
+@Component
+public class QueuePositionPush {
+
+    private static final class Channel {
+        final CounterKey key;
+        final CounterQueue queue;
+        final Set<Follower> followers = ConcurrentHashMap.newKeySet();
+        long pushedServing = -1;
+
+        Channel(CounterKey key, CounterQueue queue) {
+            this.key = key;
+            this.queue = queue;
+        }
+    }
+
+    private static final class Follower {
+        final SseEmitter emitter;
+        final long ticket;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicInteger missed = new AtomicInteger();
+        final AtomicBoolean closing = new AtomicBoolean();
+        /** System.nanoTime() when the write in flight started, 0 when not writing. */
+        volatile long writeStarted;
+        // Guarded by the follower: the sender writing to it, and whether that write was given up on.
+        Thread writer;
+        boolean stuck;
+
+        Follower(SseEmitter emitter, long ticket) {
+            this.emitter = emitter;
+            this.ticket = ticket;
+        }
+    }
+
+    private final Map<CounterKey, Channel> channels = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor senders;
+    private final int pushThreads;
+    private final Duration streamTimeout;
+    private final long sendTimeoutNanos;
+    private final int maxStuckSenders;
+    private final int maxMissedPushes;
+    private final AtomicInteger followers = new AtomicInteger();
+    private int stuckSenders;
+    private final Counter shed;
+    private final Counter stuckSends;
+
+    public QueuePositionPush(
+            MeterRegistry meterRegistry,
+            @Value("${appointments.queue.push-threads:4}") int pushThreads,
+            @Value("${appointments.queue.push-backlog:10000}") int pushBacklog,
+            @Value("${appointments.queue.max-missed-pushes:3}") int maxMissedPushes,
+            @Value("${appointments.queue.stream-timeout:PT30M}") Duration streamTimeout,
+            @Value("${appointments.queue.send-timeout:PT5S}") Duration sendTimeout,
+            @Value("${appointments.queue.max-stuck-senders:64}") int maxStuckSenders) {
+        this.senders = new ThreadPoolExecutor(pushThreads, pushThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(pushBacklog), new CustomizableThreadFactory("queue-push-"));
+        this.pushThreads = pushThreads;
+        this.maxMissedPushes = maxMissedPushes;
+        this.streamTimeout = streamTimeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.maxStuckSenders = maxStuckSenders;
+        Gauge.builder("appointments.queue.followers", followers, AtomicInteger::get).register(meterRegistry);
+        this.shed = Counter.builder("appointments.queue.followers.shed").register(meterRegistry);
+        this.stuckSends = Counter.builder("appointments.queue.sends.stuck").register(meterRegistry);
+    }
+
+    SseEmitter subscribe(CounterKey key, CounterQueue queue, long ticket) {
+        return subscribe(key, queue, ticket, new SseEmitter(streamTimeout.toMillis()));
+    }
+
+    SseEmitter subscribe(CounterKey key, CounterQueue queue, long ticket, SseEmitter emitter) {
+        Follower follower = new Follower(emitter, ticket);
+        Channel channel = channels.computeIfAbsent(key, k -> new Channel(k, queue));
+        Runnable unsubscribe = () -> {
+            if (channel.followers.remove(follower)) {
+                followers.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe.run());
+        channel.followers.add(follower);
+        followers.incrementAndGet();
+        send(follower, QueueService.toTicket(key, queue, ticket));
+        return emitter;
+    }
+
+    @Scheduled(
+            initialDelayString = "${appointments.queue.push-interval:PT1S}",
+            fixedDelayString = "${appointments.queue.push-interval:PT1S}")
+    public void push() {
+        long now = System.nanoTime();
+        for (Channel channel : channels.values()) {
+            for (Follower follower : channel.followers) {
+                long started = follower.writeStarted;
+                if (started != 0 && now - started > sendTimeoutNanos) {
+                    giveUp(follower);
+                }
+            }
+        }
+        for (Channel channel : channels.values()) {
+            long serving = channel.queue.nowServing();
+            if (serving == channel.pushedServing) {
+                continue;
+            }
+            channel.pushedServing = serving;
+            for (Follower follower : channel.followers) {
+                send(follower, QueueService.toTicket(channel.key, channel.queue, follower.ticket));
+            }
+        }
+    }
+
+    private void send(Follower follower, QueueTicketResponse position) {
+        if (follower.closing.get()) {
+            close(follower);
+            return;
+        }
+        if (!follower.sending.compareAndSet(false, true)) {
+            // Still queued for a sender: the pool is behind, not the client.
+            if (follower.writeStarted != 0) {
+                missed(follower);
+            }
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                startWrite(follower);
+                try {
+                    follower.emitter.send(SseEmitter.event().name("position").data(position, MediaType.APPLICATION_JSON));
+                    follower.missed.set(0);
+                    if (position.getPosition() == 0) {
+                        follower.emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    follower.emitter.completeWithError(e);
+                } finally {
+                    endWrite(follower);
+                    follower.sending.set(false);
+                    if (follower.closing.get()) {
+                        follower.emitter.complete();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            follower.sending.set(false);
+            missed(follower);
+        }
+    }
+
+    private void startWrite(Follower follower) {
+        synchronized (follower) {
+            follower.writer = Thread.currentThread();
+            follower.writeStarted = System.nanoTime();
+        }
+    }
+
+    private void endWrite(Follower follower) {
+        boolean stuck;
+        synchronized (follower) {
+            stuck = follower.stuck;
+            follower.stuck = false;
+            follower.writer = null;
+            follower.writeStarted = 0;
+            // An interrupt meant for this write must not reach the next task.
+            Thread.interrupted();
+        }
+        if (stuck) {
+            resize(-1);
+        }
+    }
+
+    /**
+     * Closes the stream of a follower whose write is past its deadline, and lends
+     * the pool a thread for as long as the write holds one. The stream is closed
+     * by its sender once the write returns; the interrupt may make that sooner.
+     */
+    private void giveUp(Follower follower) {
+        synchronized (follower) {
+            if (follower.writer == null || follower.stuck) {
+                return;
+            }
+            follower.stuck = true;
+            // Grown before the write can end and shrink the pool back.
+            resize(1);
+            follower.writer.interrupt();
+        }
+        stuckSends.increment();
+        if (follower.closing.compareAndSet(false, true)) {
+            shed.increment();
+        }
+    }
+
+    private synchronized void resize(int delta) {
+        int stuck = stuckSenders + delta;
+        int size = pushThreads + Math.min(stuck, maxStuckSenders);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+        stuckSenders = stuck;
+    }
+
+    private void missed(Follower follower) {
+        if (follower.missed.incrementAndGet() > maxMissedPushes && follower.closing.compareAndSet(false, true)) {
+            shed.increment();
+            close(follower);
+        }
+    }
+
+    /**
+     * Completes a follower's stream on the sender pool. Emitter methods lock
+     * the emitter, so calling them on the scheduler thread would stall every
+     * scheduled task behind a stuck send; when a send is in flight, its sender
+     * completes the stream as it finishes instead.
+     */
+    private void close(Follower follower) {
+        if (!follower.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                try {
+                    follower.emitter.complete();
+                } finally {
+                    follower.sending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Still marked closing: the next push tries again.
+            follower.sending.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+}
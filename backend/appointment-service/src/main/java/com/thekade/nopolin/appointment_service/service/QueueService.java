@@ -0,0 +1,113 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.thekade.nopolin.appointment_service.dto.QueueStatusResponse;
+import com.thekade.nopolin.appointment_service.dto.QueueTicketResponse;
+import com.thekade.nopolin.appointment_service.entity.Office;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Walk-in virtual queues, one {@link CounterQueue} per office counter. Queues
+ * live in memory only and start again from ticket 1 after a restart.
+ */
+@Service
+@RequiredArgsConstructor
+public class QueueService {
+
+    public record CounterKey(long officeId, int counter) {
+    }
+
+    private final OfficeService officeService;
+    private final QueuePositionPush positionPush;
+    private final Map<CounterKey, CounterQueue> queues = new ConcurrentHashMap<>();
+
+    /** Issues {@code citizen} a ticket; one already waiting at this counter is returned instead. */
+    public QueueTicketResponse take(Long officeId, int counter, String citizen) {
+        CounterKey key = key(officeId, counter);
+        CounterQueue queue = queue(key);
+        return toTicket(key, queue, queue.issue(citizen));
+    }
+
+    /** A waiting ticket of {@code citizen}, or of anyone when {@code privileged}. */
+    public QueueTicketResponse ticket(Long officeId, int counter, long ticket, String citizen, boolean privileged) {
+        CounterKey key = key(officeId, counter);
+        CounterQueue queue = queue(key);
+        checkHeld(queue, ticket, citizen, privileged);
+        return toTicket(key, queue, ticket);
+    }
+
+    /** Streams the position of a ticket, held as for {@link #ticket}, until it is called. */
+    public SseEmitter follow(Long officeId, int counter, long ticket, String citizen, boolean privileged) {
+        CounterKey key = key(officeId, counter);
+        CounterQueue queue = queue(key);
+        checkHeld(queue, ticket, citizen, privileged);
+        return positionPush.subscribe(key, queue, ticket);
+    }
+
+    public QueueStatusResponse callNext(Long officeId, int counter) {
+        CounterKey key = key(officeId, counter);
+        CounterQueue queue = queue(key);
+        queue.callNext(System.currentTimeMillis());
+        return toStatus(key, queue);
+    }
+
+    public QueueStatusResponse status(Long officeId, int counter) {
+        CounterKey key = key(officeId, counter);
+        return toStatus(key, queue(key));
+    }
+
+    private CounterKey key(Long officeId, int counter) {
+        Office office = officeService.get(officeId);
+        if (counter < 1 || counter > office.getCounters()) {
+            throw new IllegalArgumentException("Office " + officeId + " has counters 1 to " + office.getCounters());
+        }
+        return new CounterKey(office.getId(), counter);
+    }
+
+    private CounterQueue queue(CounterKey key) {
+        CounterQueue queue = queues.get(key);
+        if (queue != null) {
+            return queue;
+        }
+        // Until the counter has called a few tickets, assume a visit takes one slot.
+        long slotSeconds = officeService.get(key.officeId()).getSlotMinutes() * 60L;
+        return queues.computeIfAbsent(key, k -> new CounterQueue(slotSeconds));
+    }
+
+    // A called ticket has no holder left and only tells that it was called.
+    private static void checkHeld(CounterQueue queue, long ticket, String citizen, boolean privileged) {
+        String holder = queue.holder(ticket);
+        if (ticket < 1 || ticket > queue.lastIssued()
+                || !(privileged || holder == null || holder.equals(citizen))) {
+            throw new IllegalArgumentException("Unknown ticket: " + ticket);
+        }
+    }
+
+    static QueueTicketResponse toTicket(CounterKey key, CounterQueue queue, long ticket) {
+        return QueueTicketResponse.builder()
+                .officeId(key.officeId())
+                .counter(key.counter())
+                .ticket(ticket)
+                .nowServing(queue.nowServing())
+                .position(queue.position(ticket))
+                .estimatedWaitSeconds(queue.estimatedWaitSeconds(ticket))
+                .build();
+    }
+
+    private static QueueStatusResponse toStatus(CounterKey key, CounterQueue queue) {
+        return QueueStatusResponse.builder()
+                .officeId(key.officeId())
+                .counter(key.counter())
+                .nowServing(queue.nowServing())
+                .lastIssued(queue.lastIssued())
+                .waiting(queue.waiting())
+                .averageServiceSeconds(queue.averageServiceSeconds())
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seat allocation for train runs, one {@link SeatMap} per run. Each run is
+ * its own lock, so bookings on different trains never contend and bookings on
+ * the same train are serialised only for the few microseconds a bitset scan
+ * takes.
+ */
+@Component
+public class SeatAllocator {
+
+    /** One departure of a train. */
+    public record TrainRun(String trainNumber, LocalDate date) {
+    }
+
+    public record TrainLayout(int carriages, int seatsPerCarriage, int stops) {
+
+        /** 1-based carriage of a seat index returned by the allocator. */
+        public int carriageOf(int seat) {
+            return seat / seatsPerCarriage + 1;
+        }
+
+        /** 1-based seat number within its carriage. */
+        public int seatNumberOf(int seat) {
+            return seat % seatsPerCarriage + 1;
+        }
+    }
+
+    /** Seats held from {@code fromStop} to {@code toStop}; stops are 0-based along the route. */
+    public record SeatAllocation(TrainRun run, int fromStop, int toStop, int[] seats) {
+    }
+
+    private record Train(TrainLayout layout, SeatMap seats) {
+    }
+
+    private final Map<TrainRun, Train> trains = new ConcurrentHashMap<>();
+    private final ZoneId zone;
+
+    public SeatAllocator(@Value("${appointments.zone:Asia/Colombo}") ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /** Opens a run for booking; opening it again with the same layout does nothing. */
+    public void open(TrainRun run, TrainLayout layout) {
+        Train train = trains.computeIfAbsent(run, key -> new Train(layout,
+                new SeatMap(layout.carriages(), layout.seatsPerCarriage(), layout.stops())));
+        if (!train.layout().equals(layout)) {
+            throw new IllegalArgumentException("Train " + run + " is already open with " + train.layout());
+        }
+    }
+
+    /**
+     * @param together seat the whole party next to each other in one carriage
+     * @return the seats, or empty if the train has no room for the journey
+     */
+    public Optional<SeatAllocation> allocate(TrainRun run, int fromStop, int toStop, int passengers,
+            boolean together) {
+        SeatMap seats = train(run).seats();
+        int[] taken;
+        synchronized (seats) {
+            taken = seats.allocate(fromStop, toStop, passengers, together);
+        }
+        return taken == null ? Optional.empty() : Optional.of(new SeatAllocation(run, fromStop, toStop, taken));
+    }
+
+    public void release(SeatAllocation allocation) {
+        SeatMap seats = train(allocation.run()).seats();
+        synchronized (seats) {
+            seats.release(allocation.fromStop(), allocation.toStop(), allocation.seats());
+        }
+    }
+
+    public int freeSeats(TrainRun run, int fromStop, int toStop) {
+        SeatMap seats = train(run).seats();
+        synchronized (seats) {
+            return seats.freeSeats(fromStop, toStop);
+        }
+    }
+
+    public TrainLayout layout(TrainRun run) {
+        return train(run).layout();
+    }
+
+    /** Runs that have departed can no longer be booked; free their seat maps. */
+    @Scheduled(cron = "${appointments.inventory.evict-cron:0 5 0 * * *}", zone = "${appointments.zone:Asia/Colombo}")
+    public void evictDepartedRuns() {
+        LocalDate today = LocalDate.now(zone);
+        trains.keySet().removeIf(run -> run.date().isBefore(today));
+    }
+
+    private Train train(TrainRun run) {
+        Train train = trains.get(run);
+        if (train == null) {
+            throw new IllegalArgumentException("Unknown train run: " + run);
+        }
+        return train;
+    }
+}
@@ -0,0 +1,177 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.Arrays;
+
+/**
+ * Seat occupancy of one train run. Every route segment (stop i to stop i + 1)
+ * has a bitset over all seats of the train, a set bit meaning the seat is
+ * free on that segment. A seat is free for a journey when it is free on every
+ * segment the journey covers, so availability is the AND of those segments'
+ * bitsets, 64 seats per word.
+ *
+ * Seats are numbered carriage by carriage, so the seats of a carriage are
+ * consecutive bits. Not thread safe; {@link SeatAllocator} locks per train.
+ */
+public final class SeatMap {
+
+    private final int seatsPerCarriage;
+    private final int seats;
+    private final int segments;
+    private final int words;
+    /** Segment-major: the words of segment s are {@code free[s * words .. s * words + words)}. */
+    private final long[] free;
+    private final long[] available;
+    private final long[] runs;
+
+    public SeatMap(int carriages, int seatsPerCarriage, int stops) {
+        if (carriages < 1 || seatsPerCarriage < 1 || stops < 2) {
+            throw new IllegalArgumentException("A train needs at least one carriage, one seat and two stops");
+        }
+        this.seatsPerCarriage = seatsPerCarriage;
+        this.seats = Math.multiplyExact(carriages, seatsPerCarriage);
+        this.segments = stops - 1;
+        this.words = (seats + 63) >>> 6;
+        this.free = new long[segments * words];
+        this.available = new long[words];
+        this.runs = new long[words];
+        long lastWord = (seats & 63) == 0 ? -1L : (1L << (seats & 63)) - 1;
+        for (int segment = 0; segment < segments; segment++) {
+            int base = segment * words;
+            Arrays.fill(free, base, base + words - 1, -1L);
+            free[base + words - 1] = lastWord;
+        }
+    }
+
+    public int seats() {
+        return seats;
+    }
+
+    /**
+     * Takes {@code count} seats free from {@code fromStop} to {@code toStop}.
+     * With {@code together} the seats are adjacent within one carriage.
+     *
+     * @return the seats taken, or null if there are not enough free seats
+     */
+    public int[] allocate(int fromStop, int toStop, int count, boolean together) {
+        checkJourney(fromStop, toStop);
+        if (count < 1 || count > (together ? seatsPerCarriage : seats)) {
+            throw new IllegalArgumentException("Cannot seat " + count + " passengers"
+                    + (together ? " together" : ""));
+        }
+        availableFor(fromStop, toStop);
+        int[] taken = together ? adjacent(count) : firstFree(count);
+        if (taken != null) {
+            set(taken, fromStop, toStop, false);
+        }
+        return taken;
+    }
+
+    /** Frees seats taken by {@link #allocate} for the same journey. */
+    public void release(int fromStop, int toStop, int[] taken) {
+        checkJourney(fromStop, toStop);
+        for (int seat : taken) {
+            if (seat < 0 || seat >= seats) {
+                throw new IllegalArgumentException("Unknown seat " + seat);
+            }
+            for (int segment = fromStop; segment < toStop; segment++) {
+                if ((free[segment * words + (seat >>> 6)] & (1L << seat)) != 0) {
+                    throw new IllegalArgumentException("Seat " + seat + " is not taken on segment " + segment);
+                }
+            }
+        }
+        set(taken, fromStop, toStop, true);
+    }
+
+    public int freeSeats(int fromStop, int toStop) {
+        checkJourney(fromStop, toStop);
+        availableFor(fromStop, toStop);
+        int count = 0;
+        for (long word : available) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private void availableFor(int fromStop, int toStop) {
+        System.arraycopy(free, fromStop * words, available, 0, words);
+        for (int segment = fromStop + 1; segment < toStop; segment++) {
+            int base = segment * words;
+            for (int word = 0; word < words; word++) {
+                available[word] &= free[base + word];
+            }
+        }
+    }
+
+    private int[] firstFree(int count) {
+        int[] taken = new int[count];
+        int found = 0;
+        for (int word = 0; word < words && found < count; word++) {
+            long bits = available[word];
+            while (bits != 0 && found < count) {
+                taken[found++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return found == count ? taken : null;
+    }
+
+    /**
+     * Finds {@code count} adjacent free seats in one carriage. After the loop
+     * bit j of {@code runs} is set when seats j .. j + count - 1 are all free;
+     * doubling the run length each pass needs log2(count) passes.
+     */
+    private int[] adjacent(int count) {
+        System.arraycopy(available, 0, runs, 0, words);
+        for (int length = 1; length < count; ) {
+            int step = Math.min(length, count - length);
+            andShiftedRight(runs, step);
+            length += step;
+        }
+        for (int word = 0; word < words; word++) {
+            long bits = runs[word];
+            while (bits != 0) {
+                int first = (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (first % seatsPerCarriage + count <= seatsPerCarriage) {
+                    int[] taken = new int[count];
+                    for (int i = 0; i < count; i++) {
+                        taken[i] = first + i;
+                    }
+                    return taken;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return null;
+    }
+
+    /** {@code bits &= bits >>> shift} over the whole multi-word bitset. */
+    private void andShiftedRight(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int word = 0; word < words; word++) {
+            int source = word + wordShift;
+            long low = source < words ? bits[source] : 0;
+            long high = source + 1 < words ? bits[source + 1] : 0;
+            bits[word] &= bitShift == 0 ? low : (low >>> bitShift) | (high << (64 - bitShift));
+        }
+    }
+
+    private void set(int[] taken, int fromStop, int toStop, boolean isFree) {
+        for (int segment = fromStop; segment < toStop; segment++) {
+            int base = segment * words;
+            for (int seat : taken) {
+                if (isFree) {
+                    free[base + (seat >>> 6)] |= 1L << seat;
+                } else {
+                    free[base + (seat >>> 6)] &= ~(1L << seat);
+                }
+            }
+        }
+    }
+
+    private void checkJourney(int fromStop, int toStop) {
+        if (fromStop < 0 || toStop > segments || fromStop >= toStop) {
+            throw new IllegalArgumentException("Journey must go forward between stops 0 and " + segments);
+        }
+    }
+}
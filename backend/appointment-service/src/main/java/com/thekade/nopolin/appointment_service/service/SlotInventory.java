@@ -0,0 +1,187 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Remaining capacity of every slot of every loaded office day, one
+ * {@link AtomicIntegerArray} per day. Taking and returning a slot is a
+ * compare-and-set on one array element, so bookings for different slots never
+ * contend and bookings for the same slot never wait on a lock.
+ *
+ * <p>A day is loaded the first time it is touched, from a snapshot of the
+ * bookings already made; the inventory must therefore be the only writer of
+ * bookings for the days it has loaded, i.e. one instance per office.
+ */
+@Component
+public class SlotInventory {
+
+    public record OfficeDay(long officeId, LocalDate date) {
+    }
+
+    private static final class DayInventory {
+        final int capacity;
+        final AtomicIntegerArray remaining;
+        /** Bit per slot, set while the slot has capacity left; lets searches skip full slots 64 at a time. */
+        final AtomicLongArray free;
+
+        DayInventory(int capacity, int[] taken) {
+            this.capacity = capacity;
+            this.remaining = new AtomicIntegerArray(taken.length);
+            this.free = new AtomicLongArray((taken.length + 63) >>> 6);
+            for (int slot = 0; slot < taken.length; slot++) {
+                remaining.set(slot, Math.max(0, capacity - taken[slot]));
+                syncFreeBit(slot);
+            }
+        }
+
+        /**
+         * Brings the slot's bit in line with its counter after the counter
+         * crossed zero. Every thread that moves a counter across zero calls
+         * this afterwards and re-reads the counter after writing the bit, so
+         * the last one to finish leaves the bit right.
+         */
+        void syncFreeBit(int slot) {
+            int word = slot >>> 6;
+            long bit = 1L << slot;
+            while (true) {
+                boolean isFree = remaining.get(slot) > 0;
+                long bits = free.get(word);
+                long updated = isFree ? bits | bit : bits & ~bit;
+                if ((bits == updated || free.compareAndSet(word, bits, updated))
+                        && (remaining.get(slot) > 0) == isFree) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private final Map<OfficeDay, CompletableFuture<DayInventory>> days = new ConcurrentHashMap<>();
+
+    /**
+     * Takes one unit of a slot if any is left.
+     *
+     * @param capacity bookings per slot, used only if the day is not loaded yet
+     * @param taken    bookings per slot already made, called only if the day is not loaded yet
+     * @return whether the slot was taken
+     */
+    public boolean tryReserve(OfficeDay day, int slot, int capacity, Supplier<int[]> taken) {
+        DayInventory inventory = load(day, capacity, taken);
+        AtomicIntegerArray remaining = inventory.remaining;
+        checkSlot(remaining, slot);
+        while (true) {
+            int left = remaining.get(slot);
+            if (left <= 0) {
+                return false;
+            }
+            if (remaining.compareAndSet(slot, left, left - 1)) {
+                if (left == 1) {
+                    inventory.syncFreeBit(slot);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns one unit of a slot taken earlier. Does nothing for a day that is
+     * no longer loaded; its next load counts the bookings afresh.
+     */
+    public void release(OfficeDay day, int slot) {
+        CompletableFuture<DayInventory> loaded = days.get(day);
+        if (loaded == null || !loaded.isDone() || loaded.isCompletedExceptionally()) {
+            return;
+        }
+        DayInventory inventory = loaded.join();
+        checkSlot(inventory.remaining, slot);
+        while (true) {
+            int left = inventory.remaining.get(slot);
+            if (left >= inventory.capacity) {
+                return;
+            }
+            if (inventory.remaining.compareAndSet(slot, left, left + 1)) {
+                if (left == 0) {
+                    inventory.syncFreeBit(slot);
+                }
+                return;
+            }
+        }
+    }
+
+    /** Remaining capacity of every slot of the day, as one consistent-enough copy. */
+    public int[] remaining(OfficeDay day, int capacity, Supplier<int[]> taken) {
+        AtomicIntegerArray remaining = load(day, capacity, taken).remaining;
+        int[] copy = new int[remaining.length()];
+        for (int slot = 0; slot < copy.length; slot++) {
+            copy[slot] = remaining.get(slot);
+        }
+        return copy;
+    }
+
+    /**
+     * Slots of the day with capacity left, as a bitset copy: bit {@code i} of
+     * word {@code i / 64} is set when slot {@code i} is free.
+     */
+    public long[] freeSlots(OfficeDay day, int capacity, Supplier<int[]> taken) {
+        AtomicLongArray free = load(day, capacity, taken).free;
+        long[] copy = new long[free.length()];
+        for (int word = 0; word < copy.length; word++) {
+            copy[word] = free.get(word);
+        }
+        return copy;
+    }
+
+    public boolean isLoaded(OfficeDay day) {
+        return days.containsKey(day);
+    }
+
+    /** Drops days before {@code date}; they can no longer be booked. */
+    public int evictBefore(LocalDate date) {
+        int before = days.size();
+        days.keySet().removeIf(day -> day.date().isBefore(date));
+        return before - days.size();
+    }
+
+    public int loadedDays() {
+        return days.size();
+    }
+
+    private DayInventory load(OfficeDay day, int capacity, Supplier<int[]> taken) {
+        CompletableFuture<DayInventory> loaded = days.get(day);
+        if (loaded == null) {
+            // The first caller reads the database outside any map lock; callers
+            // arriving meanwhile wait for its result instead of reading too.
+            CompletableFuture<DayInventory> mine = new CompletableFuture<>();
+            loaded = days.putIfAbsent(day, mine);
+            if (loaded == null) {
+                try {
+                    mine.complete(new DayInventory(capacity, taken.get()));
+                } catch (RuntimeException e) {
+                    days.remove(day, mine);
+                    mine.completeExceptionally(e);
+                    throw e;
+                }
+                return mine.join();
+            }
+        }
+        try {
+            return loaded.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static void checkSlot(AtomicIntegerArray remaining, int slot) {
+        if (slot < 0 || slot >= remaining.length()) {
+            throw new IllegalArgumentException("No slot " + slot + " on this day");
+        }
+    }
+}
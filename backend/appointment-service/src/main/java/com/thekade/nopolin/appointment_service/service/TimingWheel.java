@@ -0,0 +1,110 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 256 buckets, each bucket of a
+ * level spanning a whole turn of the level below. A timer lives in the
+ * lowest level whose turn covers its remaining delay and moves down one
+ * level whenever the wheel reaches the start of its bucket, so it is touched
+ * at most once per level: scheduling and expiry are O(1) however many timers
+ * are pending.
+ *
+ * <p>{@link #schedule} may be called from any thread; new timers wait in a
+ * lock-free inbox until the next {@link #advance}, which must always be
+ * called from the same single thread. Timers never fire before their
+ * deadline, and at most one tick after it.
+ */
+public final class TimingWheel<T> {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private record Timer<T>(long deadlineTick, T value) {
+    }
+
+    private final long startMillis;
+    private final long tickMillis;
+    private final ArrayDeque<Timer<T>>[][] buckets;
+    private final Queue<Timer<T>> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    /** The next tick to expire; every earlier tick has been processed. */
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new ArrayDeque[LEVELS][SLOTS];
+        for (ArrayDeque<Timer<T>>[] level : buckets) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    public void schedule(T value, long deadlineMillis) {
+        // Round up, so that a timer never fires early.
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        inbox.add(new Timer<>(deadlineTick, value));
+        pending.incrementAndGet();
+    }
+
+    /** Timers scheduled and not yet expired. */
+    public int size() {
+        return pending.get();
+    }
+
+    /** Expires every timer due by {@code nowMillis}. */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        for (Timer<T> timer; (timer = inbox.poll()) != null; ) {
+            place(timer, expired);
+        }
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick <= targetTick) {
+            // Higher levels first: what they hand down may be due at this very tick.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    ArrayDeque<Timer<T>> bucket = buckets[level][(int) (currentTick >>> (BITS * level)) & MASK];
+                    for (Timer<T> timer; (timer = bucket.poll()) != null; ) {
+                        place(timer, expired);
+                    }
+                }
+            }
+            ArrayDeque<Timer<T>> due = buckets[0][(int) currentTick & MASK];
+            for (Timer<T> timer; (timer = due.poll()) != null; ) {
+                fire(timer, expired);
+            }
+            currentTick++;
+        }
+    }
+
+    private void place(Timer<T> timer, Consumer<T> expired) {
+        long delay = timer.deadlineTick() - currentTick;
+        if (delay <= 0) {
+            fire(timer, expired);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        // Beyond the top level's reach: park in its furthest bucket and re-place on arrival.
+        long tick = Math.min(timer.deadlineTick(), currentTick + (1L << (BITS * LEVELS)) - 1);
+        buckets[level][(int) (tick >>> (BITS * level)) & MASK].add(timer);
+    }
+
+    private void fire(Timer<T> timer, Consumer<T> expired) {
+        pending.decrementAndGet();
+        expired.accept(timer.value());
+    }
+}
@@ -0,0 +1,94 @@
+package com.thekade.nopolin.appointment_service.benchmark;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.thekade.nopolin.appointment_service.service.SeatAllocator;
+import com.thekade.nopolin.appointment_service.service.SeatAllocator.SeatAllocation;
+import com.thekade.nopolin.appointment_service.service.SeatAllocator.TrainLayout;
+import com.thekade.nopolin.appointment_service.service.SeatAllocator.TrainRun;
+
+/**
+ * Allocations per second on a 12-carriage, 80-seat, 20-stop train kept about
+ * 70% full: each allocation for a random journey and party of 1 to 4 is
+ * matched by releasing the oldest booking once the train is at that load.
+ *
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thekade.nopolin.appointment_service.benchmark.SeatAllocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatAllocationBenchmark {
+
+    private static final TrainLayout LAYOUT = new TrainLayout(12, 80, 20);
+    private static final TrainRun RUN = new TrainRun("1015", LocalDate.of(2030, 1, 7));
+
+    @Param({"false", "true"})
+    public boolean together;
+
+    private SeatAllocator allocator;
+    private SplittableRandom random;
+    private ArrayDeque<SeatAllocation> held;
+    private int heldSeatSegments;
+    private int targetSeatSegments;
+
+    @Setup
+    public void setup() {
+        allocator = new SeatAllocator(ZoneOffset.UTC);
+        allocator.open(RUN, LAYOUT);
+        random = new SplittableRandom(42);
+        held = new ArrayDeque<>();
+        heldSeatSegments = 0;
+        targetSeatSegments = LAYOUT.carriages() * LAYOUT.seatsPerCarriage() * (LAYOUT.stops() - 1) * 7 / 10;
+    }
+
+    @Benchmark
+    public Optional<SeatAllocation> allocate() {
+        while (heldSeatSegments > targetSeatSegments) {
+            SeatAllocation oldest = held.removeFirst();
+            allocator.release(oldest);
+            heldSeatSegments -= seatSegments(oldest);
+        }
+        int from = random.nextInt(LAYOUT.stops() - 1);
+        int to = from + 1 + random.nextInt(LAYOUT.stops() - 1 - from);
+        Optional<SeatAllocation> allocation = allocator.allocate(RUN, from, to, 1 + random.nextInt(4), together);
+        allocation.ifPresent(seats -> {
+            held.addLast(seats);
+            heldSeatSegments += seatSegments(seats);
+        });
+        return allocation;
+    }
+
+    private static int seatSegments(SeatAllocation allocation) {
+        return allocation.seats().length * (allocation.toStop() - allocation.fromStop());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SeatAllocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+import com.thekade.nopolin.appointment_service.repository.BookingRepository;
+import com.thekade.nopolin.appointment_service.repository.BookingStatusChange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BookingWriteBehindTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingWriteBehind writeBehind = new BookingWriteBehind(bookingRepository,
+            mock(PlatformTransactionManager.class), meterRegistry, 100, 10);
+    /** Rows the fake table holds, in insert order. */
+    private final List<Booking> inserted = new ArrayList<>();
+    private final List<UUID> badRows = new ArrayList<>();
+    private boolean databaseDown;
+    /** Every write, in the order it reached the fake table. */
+    private final List<String> writes = new ArrayList<>();
+
+    BookingWriteBehindTest() {
+        doAnswer(invocation -> {
+            List<Booking> rows = invocation.getArgument(0);
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            if (rows.stream().anyMatch(row -> badRows.contains(row.getId()))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(64)");
+            }
+            rows.stream().filter(row -> !inserted.contains(row)).forEach(row -> {
+                inserted.add(row);
+                writes.add("insert " + row.getId());
+            });
+            return null;
+        }).when(bookingRepository).insertBatch(anyList());
+        doAnswer(invocation -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            for (BookingStatusChange change : invocation.<List<BookingStatusChange>>getArgument(0)) {
+                // The guarded UPDATE ... WHERE status = 'HELD' finds nothing before the insert.
+                assertThat(inserted).extracting(Booking::getId).contains(change.bookingId());
+                writes.add(change.status() + " " + change.bookingId());
+            }
+            return null;
+        }).when(bookingRepository).updateHeldBatch(anyList());
+    }
+
+    private static Booking held(int slot) {
+        return booking(slot).toBuilder().status(BookingStatus.HELD).holdExpiresAt(Instant.now().plusSeconds(300))
+                .build();
+    }
+
+    private static Booking booking(int slot) {
+        return Booking.builder()
+                .id(UUID.randomUUID())
+                .officeId(1L)
+                .date(LocalDate.of(2030, 1, 1))
+                .slotIndex(slot)
+                .citizen("citizen")
+                .status(BookingStatus.CONFIRMED)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    void badRowIsDeadLetteredAndTheRestArePersisted() {
+        Booking before = booking(0);
+        Booking bad = booking(1);
+        Booking after = booking(2);
+        badRows.add(bad.getId());
+        writeBehind.submit(before);
+        writeBehind.submit(bad);
+        writeBehind.submit(after);
+
+        writeBehind.flush();
+
+        assertThat(inserted).containsExactly(before, after);
+        assertThat(writeBehind.backlog()).isZero();
+        assertThat(writeBehind.isPending(bad.getId())).isFalse();
+        assertThat(meterRegistry.counter("appointments.write_behind.dead_letters").count()).isEqualTo(1);
+
+        Booking next = booking(3);
+        writeBehind.submit(next);
+        writeBehind.flush();
+        assertThat(inserted).containsExactly(before, after, next);
+    }
+
+    @Test
+    void statusChangesAreWrittenAfterTheInsertsOfTheSameFlush() {
+        Booking confirmed = held(0);
+        Booking cancelled = held(1);
+        writeBehind.submit(confirmed);
+        writeBehind.submitStatusChange(new BookingStatusChange(confirmed.getId(), BookingStatus.CONFIRMED, null));
+        writeBehind.submit(cancelled);
+        writeBehind.submitStatusChange(new BookingStatusChange(cancelled.getId(), BookingStatus.CANCELLED,
+                Instant.now()));
+
+        writeBehind.flush();
+
+        assertThat(writes).containsExactly("insert " + confirmed.getId(), "insert " + cancelled.getId(),
+                "CONFIRMED " + confirmed.getId(), "CANCELLED " + cancelled.getId());
+        assertThat(writeBehind.isPending(confirmed.getId())).isFalse();
+        assertThat(writeBehind.backlog()).isZero();
+    }
+
+    @Test
+    void statusChangesWaitForTheirInsert() {
+        Booking booking = held(0);
+        writeBehind.submit(booking);
+        writeBehind.submitStatusChange(new BookingStatusChange(booking.getId(), BookingStatus.EXPIRED, null));
+        databaseDown = true;
+
+        writeBehind.flush();
+
+        assertThat(writes).isEmpty();
+        assertThat(writeBehind.isPending(booking.getId())).isTrue();
+        assertThat(writeBehind.backlog()).isEqualTo(2);
+
+        databaseDown = false;
+        writeBehind.flush();
+
+        assertThat(writes).containsExactly("insert " + booking.getId(), "EXPIRED " + booking.getId());
+        assertThat(writeBehind.isPending(booking.getId())).isFalse();
+    }
+
+    @Test
+    void outageKeepsEveryRowForTheNextFlush() {
+        Booking first = booking(0);
+        Booking second = booking(1);
+        writeBehind.submit(first);
+        writeBehind.submit(second);
+        databaseDown = true;
+
+        writeBehind.flush();
+
+        assertThat(inserted).isEmpty();
+        assertThat(writeBehind.backlog()).isEqualTo(2);
+        assertThat(writeBehind.isPending(first.getId())).isTrue();
+        assertThat(meterRegistry.counter("appointments.write_behind.dead_letters").count()).isZero();
+
+        databaseDown = false;
+        writeBehind.flush();
+
+        assertThat(inserted).containsExactly(first, second);
+        assertThat(writeBehind.backlog()).isZero();
+        assertThat(writeBehind.isPending(first.getId())).isFalse();
+    }
+}
@@ -0,0 +1,72 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CounterQueueTest {
+
+    @Test
+    void concurrentTicketsAreUniqueAndGapless() {
+        CounterQueue queue = new CounterQueue(300);
+        Set<Long> tickets = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> tickets.add(queue.issue("citizen-" + i)));
+
+        assertThat(tickets).hasSize(10_000).contains(1L, 10_000L);
+        assertThat(queue.waiting()).isEqualTo(10_000);
+    }
+
+    @Test
+    void positionAndWaitFollowTheCalledTicket() {
+        CounterQueue queue = new CounterQueue(300);
+        for (int i = 0; i < 5; i++) {
+            queue.issue("citizen-" + i);
+        }
+
+        assertThat(queue.position(4)).isEqualTo(4);
+        assertThat(queue.estimatedWaitSeconds(4)).isEqualTo(900);
+
+        assertThat(queue.callNext(1_000)).isEqualTo(1);
+        assertThat(queue.callNext(2_000)).isEqualTo(2);
+        assertThat(queue.position(4)).isEqualTo(2);
+        assertThat(queue.position(2)).isZero();
+        assertThat(queue.estimatedWaitSeconds(2)).isZero();
+    }
+
+    @Test
+    void aCitizenWaitsWithOneTicketUntilItIsCalled() {
+        CounterQueue queue = new CounterQueue(300);
+        long first = queue.issue("citizen");
+        queue.issue("other");
+
+        assertThat(queue.issue("citizen")).isEqualTo(first);
+        assertThat(queue.holder(first)).isEqualTo("citizen");
+
+        queue.callNext(1_000);
+        assertThat(queue.holder(first)).isNull();
+        assertThat(queue.issue("citizen")).isEqualTo(3);
+    }
+
+    @Test
+    void paceIsLearnedFromCallsIgnoringLongBreaks() {
+        CounterQueue queue = new CounterQueue(100);
+        for (int i = 0; i < 4; i++) {
+            queue.issue("citizen-" + i);
+        }
+
+        queue.callNext(0);
+        queue.callNext(200_000);
+        assertThat(queue.averageServiceSeconds()).isEqualTo(120);
+
+        queue.callNext(200_000 + 3_600_000);
+        assertThat(queue.averageServiceSeconds()).isEqualTo(120);
+
+        queue.callNext(4_000_000);
+        assertThat(queue.callNext(5_000_000)).isZero();
+    }
+}
@@ -0,0 +1,191 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.thekade.nopolin.appointment_service.entity.Booking;
+import com.thekade.nopolin.appointment_service.entity.BookingStatus;
+import com.thekade.nopolin.appointment_service.exception.HoldExpiredException;
+import com.thekade.nopolin.appointment_service.repository.BookingRepository;
+import com.thekade.nopolin.appointment_service.repository.BookingStatusChange;
+import com.thekade.nopolin.appointment_service.service.SlotInventory.OfficeDay;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HoldServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 1);
+
+    private final SlotInventory inventory = mock(SlotInventory.class);
+    private final BookingWriteBehind writeBehind = mock(BookingWriteBehind.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final HoldService holdService = new HoldService(inventory, writeBehind, bookingRepository,
+            new SimpleMeterRegistry(), Duration.ofMinutes(5), Duration.ofMillis(10));
+    /** Releases per slot index; every hold below has a slot of its own. */
+    private final Map<Integer, AtomicInteger> released = new ConcurrentHashMap<>();
+    private final List<BookingStatusChange> changes = new CopyOnWriteArrayList<>();
+
+    HoldServiceTest() {
+        doAnswer(invocation -> {
+            released.computeIfAbsent(invocation.<Integer>getArgument(1), slot -> new AtomicInteger()).incrementAndGet();
+            return null;
+        }).when(inventory).release(any(), anyInt());
+        doAnswer(invocation -> changes.add(invocation.getArgument(0)))
+                .when(writeBehind).submitStatusChange(any());
+    }
+
+    private static Booking hold(int slot, Instant expiresAt) {
+        return Booking.builder()
+                .id(UUID.randomUUID())
+                .officeId(1L)
+                .date(DATE)
+                .slotIndex(slot)
+                .citizen("citizen")
+                .status(BookingStatus.HELD)
+                .createdAt(Instant.now())
+                .holdExpiresAt(expiresAt)
+                .build();
+    }
+
+    private int releases(int slot) {
+        AtomicInteger count = released.get(slot);
+        return count == null ? 0 : count.get();
+    }
+
+    private List<BookingStatus> statuses(UUID bookingId) {
+        return changes.stream().filter(change -> change.bookingId().equals(bookingId))
+                .map(BookingStatusChange::status).toList();
+    }
+
+    @Test
+    void expiredHoldReleasesItsSlotOnce() {
+        Booking booking = hold(0, Instant.now().minusSeconds(1));
+        holdService.track(booking);
+
+        holdService.expireDue();
+        holdService.expireDue();
+
+        assertThat(holdService.cancel(booking.getId(), "citizen", false)).isFalse();
+        assertThatThrownBy(() -> holdService.confirm(booking.getId(), "citizen"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(inventory).release(new OfficeDay(1L, DATE), 0);
+        assertThat(releases(0)).isEqualTo(1);
+        assertThat(statuses(booking.getId())).containsExactly(BookingStatus.EXPIRED);
+    }
+
+    @Test
+    void cancelledHoldReleasesItsSlotOnce() throws InterruptedException {
+        Booking booking = hold(0, Instant.now().plusMillis(50));
+        holdService.track(booking);
+
+        assertThat(holdService.cancel(booking.getId(), "citizen", false)).isTrue();
+        assertThat(holdService.cancel(booking.getId(), "citizen", false)).isFalse();
+        Thread.sleep(100);
+        holdService.expireDue();
+
+        assertThat(releases(0)).isEqualTo(1);
+        assertThat(statuses(booking.getId())).containsExactly(BookingStatus.CANCELLED);
+    }
+
+    @Test
+    void confirmedHoldKeepsItsSlotWhenItsTimerFires() throws InterruptedException {
+        Booking booking = hold(0, Instant.now().plusMillis(50));
+        holdService.track(booking);
+
+        assertThat(holdService.confirm(booking.getId(), "citizen")).isSameAs(booking);
+        Thread.sleep(100);
+        holdService.expireDue();
+
+        assertThat(holdService.cancel(booking.getId(), "citizen", false)).isFalse();
+        assertThat(releases(0)).isZero();
+        assertThat(statuses(booking.getId())).containsExactly(BookingStatus.CONFIRMED);
+    }
+
+    @Test
+    void confirmingADueHoldBeforeItsTickExpiresItOnce() {
+        Booking booking = hold(0, Instant.now().minusSeconds(1));
+        holdService.track(booking);
+
+        assertThatThrownBy(() -> holdService.confirm(booking.getId(), "citizen"))
+                .isInstanceOf(HoldExpiredException.class);
+        holdService.expireDue();
+
+        assertThat(releases(0)).isEqualTo(1);
+        assertThat(statuses(booking.getId())).containsExactly(BookingStatus.EXPIRED);
+    }
+
+    @Test
+    void cancellationRacingExpiryReleasesEachSlotOnce() {
+        List<Booking> bookings = new ArrayList<>();
+        Instant expiresAt = Instant.now().plusMillis(20);
+        for (int slot = 0; slot < 2_000; slot++) {
+            Booking booking = hold(slot, expiresAt);
+            bookings.add(booking);
+            holdService.track(booking);
+        }
+
+        CompletableFuture<Void> cancelling = CompletableFuture.runAsync(() -> bookings.parallelStream()
+                .forEach(booking -> holdService.cancel(booking.getId(), "citizen", false)));
+        while (!cancelling.isDone()) {
+            holdService.expireDue();
+        }
+        cancelling.join();
+        holdService.expireDue();
+
+        for (Booking booking : bookings) {
+            assertThat(releases(booking.getSlotIndex())).as("releases of slot %d", booking.getSlotIndex())
+                    .isEqualTo(1);
+            assertThat(statuses(booking.getId())).singleElement()
+                    .isIn(BookingStatus.CANCELLED, BookingStatus.EXPIRED);
+        }
+    }
+
+    @Test
+    void recoveryExpiresStaleHoldsInTheDatabaseAndTracksTheRest() {
+        Booking live = hold(3, Instant.now().plusSeconds(60));
+        when(bookingRepository.expireHeldBefore(any())).thenReturn(2);
+        when(bookingRepository.findByStatusAndHoldExpiresAtAfter(any(), any())).thenReturn(List.of(live));
+
+        holdService.recover();
+
+        // Stale holds are expired by the update; their slots are counted afresh when the day is loaded.
+        verify(bookingRepository).expireHeldBefore(any());
+        verify(bookingRepository).findByStatusAndHoldExpiresAtAfter(any(), any());
+        assertThat(released).isEmpty();
+        assertThat(holdService.cancel(live.getId(), "citizen", false)).isTrue();
+        assertThat(releases(3)).isEqualTo(1);
+    }
+
+    @Test
+    void recoveredHoldExpiresOnItsTimer() throws InterruptedException {
+        Booking live = hold(3, Instant.now().plusMillis(50));
+        when(bookingRepository.findByStatusAndHoldExpiresAtAfter(any(), any())).thenReturn(List.of(live));
+
+        holdService.recover();
+        Thread.sleep(100);
+        holdService.expireDue();
+
+        assertThat(releases(3)).isEqualTo(1);
+        assertThat(statuses(live.getId())).containsExactly(BookingStatus.EXPIRED);
+    }
+}
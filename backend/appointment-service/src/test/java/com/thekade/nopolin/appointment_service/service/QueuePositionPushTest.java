@@ -0,0 +1,94 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.thekade.nopolin.appointment_service.service.QueueService.CounterKey;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueuePositionPushTest {
+
+    private static final CounterKey KEY = new CounterKey(1L, 1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueuePositionPush positionPush = new QueuePositionPush(meterRegistry, 2, 100, 3,
+            Duration.ofMinutes(30), Duration.ofMillis(100), 8);
+    private final CounterQueue queue = new CounterQueue(60);
+    private final CountDownLatch phonesWake = new CountDownLatch(1);
+
+    /** A phone that stopped reading: the write blocks, and ignores interrupts as a socket write may. */
+    private final class StalledEmitter extends SseEmitter {
+        @Override
+        public void send(SseEventBuilder builder) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    phonesWake.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class HealthyEmitter extends SseEmitter {
+        final List<SseEventBuilder> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder);
+        }
+    }
+
+    @AfterEach
+    void shutdown() {
+        phonesWake.countDown();
+        positionPush.shutdown();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waited 5 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void stalledPhonesDoNotStarveTheOthers() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            queue.issue("citizen-" + i);
+        }
+        // Two stalled phones pin both senders; the healthy one's first event waits behind them.
+        positionPush.subscribe(KEY, queue, 5, new StalledEmitter());
+        positionPush.subscribe(KEY, queue, 6, new StalledEmitter());
+        HealthyEmitter healthy = new HealthyEmitter();
+        positionPush.subscribe(KEY, queue, 7, healthy);
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(150);
+            queue.callNext(System.currentTimeMillis());
+            positionPush.push();
+        }
+
+        await(() -> healthy.events.size() >= 2);
+        assertThat(meterRegistry.counter("appointments.queue.sends.stuck").count()).isEqualTo(2);
+        // Only the stalled phones were shed.
+        assertThat(meterRegistry.counter("appointments.queue.followers.shed").count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,46 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.thekade.nopolin.appointment_service.dto.QueueTicketResponse;
+import com.thekade.nopolin.appointment_service.entity.Office;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueueServiceTest {
+
+    private final OfficeService officeService = mock(OfficeService.class);
+    private final QueueService queueService = new QueueService(officeService, mock(QueuePositionPush.class));
+
+    QueueServiceTest() {
+        when(officeService.get(1L)).thenReturn(Office.builder().id(1L).counters(2).slotMinutes(15).build());
+    }
+
+    @Test
+    void aWaitingTicketIsVisibleToItsHolderAndStaffOnly() {
+        long ticket = queueService.take(1L, 1, "citizen").getTicket();
+
+        assertThat(queueService.ticket(1L, 1, ticket, "citizen", false).getPosition()).isEqualTo(1);
+        assertThat(queueService.ticket(1L, 1, ticket, "officer", true).getPosition()).isEqualTo(1);
+        assertThatThrownBy(() -> queueService.ticket(1L, 1, ticket, "other", false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queueService.follow(1L, 1, ticket, "other", false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void aCitizenHoldsOneTicketPerCounter() {
+        QueueTicketResponse first = queueService.take(1L, 1, "citizen");
+
+        assertThat(queueService.take(1L, 1, "citizen").getTicket()).isEqualTo(first.getTicket());
+        assertThat(queueService.take(1L, 1, "other").getTicket()).isEqualTo(first.getTicket() + 1);
+        assertThat(queueService.take(1L, 2, "citizen").getTicket()).isEqualTo(1);
+
+        queueService.callNext(1L, 1);
+        assertThat(queueService.ticket(1L, 1, first.getTicket(), "other", false).getPosition()).isZero();
+        assertThat(queueService.take(1L, 1, "citizen").getTicket()).isEqualTo(first.getTicket() + 2);
+    }
+}
@@ -0,0 +1,56 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatMapTest {
+
+    @Test
+    void seatIsFreeOnlyForJourneysThatDoNotOverlapItsBookings() {
+        SeatMap map = new SeatMap(1, 1, 5);
+
+        assertThat(map.allocate(1, 3, 1, false)).containsExactly(0);
+
+        assertThat(map.allocate(2, 4, 1, false)).isNull();
+        assertThat(map.allocate(0, 2, 1, false)).isNull();
+        assertThat(map.allocate(0, 1, 1, false)).containsExactly(0);
+        assertThat(map.allocate(3, 4, 1, false)).containsExactly(0);
+        assertThat(map.freeSeats(0, 4)).isZero();
+    }
+
+    @Test
+    void groupsAreSeatedTogetherWithinOneCarriage() {
+        // Two carriages of 40 seats, so carriage 2 starts inside the first word.
+        SeatMap map = new SeatMap(2, 40, 3);
+        map.allocate(0, 2, 30, true);
+
+        // Seats 30..39 are free but only 10 long; 4 fit there, 12 must go to carriage 2.
+        assertThat(map.allocate(0, 2, 12, true)).startsWith(40, 41).endsWith(51);
+        assertThat(map.allocate(1, 2, 4, true)).containsExactly(30, 31, 32, 33);
+        assertThat(map.allocate(0, 1, 40, true)).isNull();
+        assertThat(map.allocate(0, 1, 34, false)).hasSize(34);
+    }
+
+    @Test
+    void runsAcrossWordBoundariesAreFound() {
+        SeatMap map = new SeatMap(1, 200, 2);
+        map.allocate(0, 1, 60, false);
+
+        assertThat(map.allocate(0, 1, 100, true)).startsWith(60).endsWith(159);
+    }
+
+    @Test
+    void releaseFreesTheSeatsOnceForTheSameJourney() {
+        SeatMap map = new SeatMap(12, 80, 20);
+        int[] seats = map.allocate(3, 17, 4, true);
+        assertThat(map.freeSeats(0, 19)).isEqualTo(map.seats() - 4);
+
+        map.release(3, 17, seats);
+
+        assertThat(map.freeSeats(0, 19)).isEqualTo(map.seats());
+        assertThatThrownBy(() -> map.release(3, 17, seats)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.allocate(5, 5, 1, false)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.thekade.nopolin.appointment_service.service.SlotInventory.OfficeDay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlotInventoryTest {
+
+    private static final OfficeDay DAY = new OfficeDay(1, LocalDate.of(2030, 1, 7));
+
+    @Test
+    void concurrentReservationsNeverOversellASlot() throws Exception {
+        SlotInventory inventory = new SlotInventory();
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<int[]> taken = () -> {
+            loads.incrementAndGet();
+            return new int[] {0, 0, 0};
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            attempts.add(pool.submit(() -> {
+                start.await();
+                return inventory.tryReserve(DAY, 1, 100, taken);
+            }));
+        }
+        start.countDown();
+        int reserved = 0;
+        for (Future<Boolean> attempt : attempts) {
+            if (attempt.get(10, TimeUnit.SECONDS)) {
+                reserved++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(reserved).isEqualTo(100);
+        assertThat(loads).hasValue(1);
+        assertThat(inventory.remaining(DAY, 100, taken)).containsExactly(100, 0, 100);
+        assertThat(inventory.freeSlots(DAY, 100, taken)).containsExactly(0b101L);
+    }
+
+    @Test
+    void loadsExistingBookingsAndCapsReleasesAtCapacity() {
+        SlotInventory inventory = new SlotInventory();
+        Supplier<int[]> taken = () -> new int[] {2, 0};
+
+        assertThat(inventory.tryReserve(DAY, 0, 2, taken)).isFalse();
+        inventory.release(DAY, 0);
+        assertThat(inventory.tryReserve(DAY, 0, 2, taken)).isTrue();
+
+        inventory.release(DAY, 1);
+        assertThat(inventory.remaining(DAY, 2, taken)).containsExactly(0, 2);
+    }
+
+    @Test
+    void freeSlotBitsFollowSlotsFillingUpAndFreeingAgain() {
+        SlotInventory inventory = new SlotInventory();
+        int[] bookings = new int[70];
+        bookings[3] = 1;
+        Supplier<int[]> taken = () -> bookings;
+
+        assertThat(inventory.freeSlots(DAY, 1, taken)).containsExactly(~(1L << 3), (1L << 6) - 1);
+
+        inventory.tryReserve(DAY, 65, 1, taken);
+        inventory.release(DAY, 3);
+        assertThat(inventory.freeSlots(DAY, 1, taken)).containsExactly(-1L, (1L << 6) - 1 & ~(1L << 1));
+    }
+
+    @Test
+    void rejectsUnknownSlotsAndForgetsPastDays() {
+        SlotInventory inventory = new SlotInventory();
+        Supplier<int[]> taken = () -> new int[] {0};
+
+        assertThatThrownBy(() -> inventory.tryReserve(DAY, 1, 1, taken))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(inventory.evictBefore(DAY.date().plusDays(1))).isEqualTo(1);
+        assertThat(inventory.isLoaded(DAY)).isFalse();
+    }
+}
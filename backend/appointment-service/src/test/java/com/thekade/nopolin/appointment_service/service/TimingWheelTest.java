@@ -0,0 +1,68 @@
+package com.thekade.nopolin.appointment_service.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void timersFireOnTheirTickAndNeverEarly() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 300);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(299, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(300, fired::add);
+        assertThat(fired).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 0);
+        wheel.advance(10_000, value -> { });
+        wheel.schedule("late", 5_000);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(10_000, fired::add);
+
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void hundredThousandTimersAcrossAllLevelsFireOnceWithinOneTick() {
+        long tick = 100;
+        TimingWheel<Integer> wheel = new TimingWheel<>(tick, 0);
+        SplittableRandom random = new SplittableRandom(7);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // Half within a minute, half up to ~20 days ahead, which is in the top level at 100 ms per tick.
+            long deadline = i < 50_000 ? random.nextLong(1, 600_000) : random.nextLong(1, 1_800_000_000L);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+        Map<Integer, Long> firedAt = new HashMap<>();
+
+        for (long now = 0; now <= 1_800_000_000L + tick; now += tick) {
+            long at = now;
+            wheel.advance(now, value -> firedAt.merge(value, at, (first, again) -> -1L));
+        }
+
+        assertThat(firedAt).hasSize(100_000);
+        assertThat(wheel.size()).isZero();
+        for (Map.Entry<Integer, Long> fired : firedAt.entrySet()) {
+            long deadline = deadlines.get(fired.getKey());
+            assertThat(fired.getValue()).isBetween(deadline, deadline + tick - 1);
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package com.thekade.nopolin.auth_service.config;
 
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.thekade.nopolin.auth_service.repository.UserRepository;
+import com.thekade.nopolin.auth_service.service.UserCache;
+import com.thekade.nopolin.security_common.AccessTokenDenylist;
+import com.thekade.nopolin.security_common.IdentityHeaders;
 
 
 @Configuration
@@ -20,18 +31,64 @@ import com.thekade.nopolin.auth_service.repository.UserRepository;
 public class ApplicationConfig {
 
   private final UserRepository repository;
+  private final UserCache userCache;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${auth.password.bcrypt-strength:10}")
+  private int bcryptStrength;
+
+  @Value("${auth.password.hashing-threads:0}")
+  private int hashingThreads;
+
+  @Value("${auth.password.queue-capacity:64}")
+  private int hashingQueueCapacity;
+
+  @Value("${auth.password.timeout:5s}")
+  private Duration hashingTimeout;
+
+  @Value("${auth.password.retry-after-seconds:1}")
+  private long retryAfterSeconds;
+
+  @Bean
+  public AccessTokenDenylist accessTokenDenylist(
+      DataSource dataSource,
+      @Value("${auth.token-denylist.expected-size:10000}") int expectedSize) {
+    return new AccessTokenDenylist(dataSource, expectedSize);
+  }
+
+  @Bean
+  public IdentityHeaders identityHeaders(@Value("${security.identity.secret:}") String identitySecret) {
+    return new IdentityHeaders(identitySecret);
+  }
 
   @Bean
   public UserDetailsService userDetailsService() {
-    return username -> repository.findByUsername(username)
+    return username -> userCache.findByUsername(username)
         .orElseThrow(() -> new UsernameNotFoundException("User not found"));
   }
 
+  /**
+   * Stores a re-encoded hash after a successful login when the stored one was
+   * produced with a lower BCrypt strength than is currently configured.
+   */
+  @Bean
+  public UserDetailsPasswordService userDetailsPasswordService() {
+    return (user, newPassword) -> repository.findByUsername(user.getUsername())
+        .map(u -> {
+          u.setPassword(newPassword);
+          UserDetails saved = repository.save(u);
+          userCache.evict(u.getId(), u.getUsername());
+          return saved;
+        })
+        .orElse(user);
+  }
+
   @Bean
   public AuthenticationProvider authenticationProvider() {
     DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
     authProvider.setUserDetailsService(userDetailsService());
     authProvider.setPasswordEncoder(passwordEncoder());
+    authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
     return authProvider;
   }
 
@@ -40,9 +97,16 @@ public class ApplicationConfig {
     return config.getAuthenticationManager();
   }
 
-  @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  @Bean(destroyMethod = "shutdown")
+  public OffloadedPasswordEncoder passwordEncoder() {
+    int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+    return new OffloadedPasswordEncoder(
+        new BCryptPasswordEncoder(bcryptStrength),
+        threads,
+        hashingQueueCapacity,
+        hashingTimeout,
+        retryAfterSeconds,
+        meterRegistry);
   }
 
 }
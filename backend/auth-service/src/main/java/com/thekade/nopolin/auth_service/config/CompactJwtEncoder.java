@@ -0,0 +1,229 @@
+package com.thekade.nopolin.auth_service.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+
+import com.thekade.nopolin.security_common.JwtVerifier;
+
+/**
+ * HS256 token encoder for the fixed claim set auth-service issues. Header and
+ * payload JSON are written straight into a per-thread byte buffer, Base64url
+ * encoded and signed with a per-thread {@link Mac}; the only allocation per
+ * token is the returned string. Output is a standard compact JWS that jjwt
+ * parses.
+ */
+final class CompactJwtEncoder {
+
+    // base64url({"alg":"HS256"}), the header jjwt writes for HS256.
+    private static final byte[] HEADER = "eyJhbGciOiJIUzI1NiJ9".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private final Key key;
+    private final ThreadLocal<Buffers> buffers;
+
+    CompactJwtEncoder(Key key) {
+        this.key = key;
+        this.buffers = ThreadLocal.withInitial(this::newBuffers);
+    }
+
+    /**
+     * @param userId and {@code email} may be null, as for refresh tokens
+     * @param issuedAtMillis written both as {@code iat} in seconds and, unrounded, as
+     *                       {@link JwtVerifier#ISSUED_AT_MILLIS_CLAIM}
+     */
+    String encode(String subject, String role, Long userId, String email, String tokenId,
+            long issuedAtMillis, long expiresAtSeconds) {
+        Buffers b = buffers.get();
+        Json json = b.json;
+        json.reset();
+        json.raw('{');
+        boolean first = true;
+        if (role != null) {
+            first = json.stringField(first, "role", role);
+        }
+        if (userId != null) {
+            first = json.numberField(first, "userId", userId);
+        }
+        if (email != null) {
+            first = json.stringField(first, "email", email);
+        }
+        if (tokenId != null) {
+            first = json.stringField(first, "jti", tokenId);
+        }
+        first = json.stringField(first, "sub", subject);
+        json.numberField(first, "iat", Math.floorDiv(issuedAtMillis, 1000));
+        json.numberField(false, JwtVerifier.ISSUED_AT_MILLIS_CLAIM, issuedAtMillis);
+        json.numberField(false, "exp", expiresAtSeconds);
+        json.raw('}');
+
+        int payloadLength = base64Length(json.length);
+        int total = HEADER.length + 1 + payloadLength + 1 + base64Length(SIGNATURE_LENGTH);
+        byte[] out = b.output(total);
+        System.arraycopy(HEADER, 0, out, 0, HEADER.length);
+        int pos = HEADER.length;
+        out[pos++] = '.';
+        pos = base64Url(json.bytes, json.length, out, pos);
+
+        Mac mac = b.mac;
+        mac.update(out, 0, pos);
+        try {
+            mac.doFinal(b.signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign token", e);
+        }
+        out[pos++] = '.';
+        pos = base64Url(b.signature, SIGNATURE_LENGTH, out, pos);
+        return new String(out, 0, pos, StandardCharsets.ISO_8859_1);
+    }
+
+    private Buffers newBuffers() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return new Buffers(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static int base64Length(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    /** Unpadded base64url, as JWS requires. */
+    private static int base64Url(byte[] src, int length, byte[] dst, int pos) {
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[pos++] = BASE64URL[bits >>> 18];
+            dst[pos++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 6) & 0x3f];
+            dst[pos++] = BASE64URL[bits & 0x3f];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[pos++] = BASE64URL[bits >>> 18];
+            dst[pos++] = BASE64URL[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[pos++] = BASE64URL[bits >>> 18];
+            dst[pos++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 6) & 0x3f];
+        }
+        return pos;
+    }
+
+    private static final class Buffers {
+        final Mac mac;
+        final Json json = new Json();
+        final byte[] signature = new byte[SIGNATURE_LENGTH];
+        byte[] output = new byte[512];
+
+        Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        byte[] output(int length) {
+            if (output.length < length) {
+                output = new byte[Math.max(length, output.length * 2)];
+            }
+            return output;
+        }
+    }
+
+    /** Minimal UTF-8 JSON writer for flat objects of string and number fields. */
+    private static final class Json {
+        byte[] bytes = new byte[384];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        boolean stringField(boolean first, String name, String value) {
+            name(first, name);
+            raw('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    raw('\\');
+                    raw(c);
+                } else if (c < 0x20) {
+                    raw('\\');
+                    raw('u');
+                    raw('0');
+                    raw('0');
+                    raw(HEX[c >>> 4]);
+                    raw(HEX[c & 0xf]);
+                } else if (c < 0x80) {
+                    raw(c);
+                } else if (c < 0x800) {
+                    raw(0xc0 | (c >>> 6));
+                    raw(0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    raw(0xf0 | (cp >>> 18));
+                    raw(0x80 | ((cp >>> 12) & 0x3f));
+                    raw(0x80 | ((cp >>> 6) & 0x3f));
+                    raw(0x80 | (cp & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    raw('?');
+                } else {
+                    raw(0xe0 | (c >>> 12));
+                    raw(0x80 | ((c >>> 6) & 0x3f));
+                    raw(0x80 | (c & 0x3f));
+                }
+            }
+            raw('"');
+            return false;
+        }
+
+        boolean numberField(boolean first, String name, long value) {
+            name(first, name);
+            if (value < 0) {
+                raw('-');
+                if (value == Long.MIN_VALUE) {
+                    // Cannot be negated; never a real claim value.
+                    throw new IllegalArgumentException("Claim out of range: " + name);
+                }
+                value = -value;
+            }
+            long divisor = 1;
+            while (value / divisor >= 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                raw((int) ('0' + (value / divisor) % 10));
+            }
+            return false;
+        }
+
+        private void name(boolean first, String name) {
+            if (!first) {
+                raw(',');
+            }
+            raw('"');
+            for (int i = 0; i < name.length(); i++) {
+                raw(name.charAt(i));
+            }
+            raw('"');
+            raw(':');
+        }
+
+        void raw(int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) b;
+        }
+    }
+}
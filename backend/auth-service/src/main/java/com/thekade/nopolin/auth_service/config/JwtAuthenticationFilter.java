@@ -2,6 +2,7 @@ package com.thekade.nopolin.auth_service.config;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,6 +12,13 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.thekade.nopolin.auth_service.service.DeactivatedUserRegistry;
+import com.thekade.nopolin.security_common.AccessTokenDenylist;
+import com.thekade.nopolin.security_common.IdentityHeaders;
+import com.thekade.nopolin.security_common.InvalidTokenException;
+import com.thekade.nopolin.security_common.TokenAuthorities;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +31,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtUtil;
   private final UserDetailsService userDetailsService;
+  private final DeactivatedUserRegistry deactivatedUsers;
+  private final AccessTokenDenylist revokedTokens;
+  private final IdentityHeaders identityHeaders;
+
+  /**
+   * When enabled the authentication is built from the verified token claims
+   * alone, without loading the user from the database.
+   */
+  @Value("${jwt.stateless:false}")
+  private boolean stateless;
 
   @Override
   protected void doFilterInternal(
@@ -31,30 +49,62 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       @NonNull FilterChain filterChain) throws ServletException, IOException {
 
     final String authorizationHeader = request.getHeader("Authorization");
-    final String jwtToken;
-    final String userName;
+    VerifiedToken claims;
 
     if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
       filterChain.doFilter(request, response);
       return;
     }
 
-    jwtToken = authorizationHeader.substring(7);
-    userName = jwtUtil.extractUsername(jwtToken);
-    if (userName != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetials = this.userDetailsService.loadUserByUsername(userName);
-      if (jwtUtil.validateToken(jwtToken, userDetials)) {
-        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-            userDetials,
-            null,
-            userDetials.getAuthorities());
+    // Prefer the identity the gateway signed after verifying the same token.
+    String bearerToken = authorizationHeader.substring(7);
+    claims = identityHeaders.verify(request::getHeader, bearerToken);
+    if (claims == null) {
+      try {
+        claims = jwtUtil.verifyToken(bearerToken);
+      } catch (InvalidTokenException e) {
+        filterChain.doFilter(request, response);
+        return;
+      }
+    }
+    if (revokedTokens.isRevoked(claims)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      UsernamePasswordAuthenticationToken authenticationToken = stateless
+          ? authenticateFromClaims(claims)
+          : authenticateFromUserDetails(claims);
+      if (authenticationToken != null) {
         authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-
       }
 
     }
     filterChain.doFilter(request, response);
 
   }
+
+  private UsernamePasswordAuthenticationToken authenticateFromUserDetails(VerifiedToken claims) {
+    UserDetails userDetials = this.userDetailsService.loadUserByUsername(claims.getSubject());
+    if (!jwtUtil.isTokenValidFor(claims, userDetials)) {
+      return null;
+    }
+    return new UsernamePasswordAuthenticationToken(
+        userDetials,
+        null,
+        userDetials.getAuthorities());
+  }
+
+  private UsernamePasswordAuthenticationToken authenticateFromClaims(VerifiedToken claims) {
+    // Refresh tokens carry no userId, so they cannot be used as access tokens here.
+    if (claims.getUserId() == null || claims.getRole() == null || claims.isExpired()
+        || deactivatedUsers.isDeactivated(claims.getUserId())) {
+      return null;
+    }
+    return new UsernamePasswordAuthenticationToken(
+        claims.getSubject(),
+        null,
+        TokenAuthorities.of(claims));
+  }
 }
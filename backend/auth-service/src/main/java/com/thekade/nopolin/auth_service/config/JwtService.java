@@ -1,21 +1,24 @@
 package com.thekade.nopolin.auth_service.config;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;  
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.security_common.InvalidTokenException;
+import com.thekade.nopolin.security_common.JwtVerifier;
+import com.thekade.nopolin.security_common.VerifiedToken;
 
 @Service
 public class JwtService {
@@ -26,71 +29,90 @@ public class JwtService {
     private static final long ACCESS_TOKEN_EXPIRATION = 1000 * 60 * 60 * 24 * 7; // 1 hour
     private static final long REFRESH_TOKEN_EXPIRATION = 1000 * 60 * 60 * 24 * 7; // 7 days
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    // Both are immutable and thread-safe, so they are built once instead of per token.
+    private JwtVerifier verifier;
+    private Key signInKey;
+    private CompactJwtEncoder encoder;
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @PostConstruct
+    void init() {
+        verifier = new JwtVerifier(secretKey);
+        signInKey = verifier.getKey();
+        encoder = new CompactJwtEncoder(signInKey);
     }
 
     public String generateToken(User userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", userDetails.getRole());
-        claims.put("userId", userDetails.getId());
-        claims.put("email", userDetails.getEmail()); // optional
-        return generateToken(claims, userDetails, ACCESS_TOKEN_EXPIRATION);
+        // The jti only has to be unique, not unpredictable: the token is signed.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String tokenId = new UUID(random.nextLong(), random.nextLong()).toString();
+        long now = System.currentTimeMillis();
+        return encoder.encode(userDetails.getUsername(), userDetails.getRole().name(), userDetails.getId(),
+                userDetails.getEmail(), tokenId, now, (now + ACCESS_TOKEN_EXPIRATION) / 1000);
+    }
+
+    /**
+     * Refresh tokens carry a unique id so the server can track and revoke them
+     * in the refresh token store.
+     */
+    public String generateRefreshToken(User userDetails, String tokenId) {
+        long now = System.currentTimeMillis();
+        return encoder.encode(userDetails.getUsername(), userDetails.getRole().name(), null,
+                null, tokenId, now, (now + REFRESH_TOKEN_EXPIRATION) / 1000);
     }
-    
 
+    public Duration getAccessTokenLifetime() {
+        return Duration.ofMillis(ACCESS_TOKEN_EXPIRATION);
+    }
 
-    public String generateRefreshToken(User userDetails) {
-        return generateToken(new HashMap<>(), userDetails, REFRESH_TOKEN_EXPIRATION);
+    public Duration getRefreshTokenLifetime() {
+        return Duration.ofMillis(REFRESH_TOKEN_EXPIRATION);
     }
 
     public String generateToken(Map<String, Object> extraClaims, User userDetails, long expirationTime) {
+        long now = System.currentTimeMillis();
         extraClaims.put("role", userDetails.getRole());
+        extraClaims.put(JwtVerifier.ISSUED_AT_MILLIS_CLAIM, now);
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationTime))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Parses the token and verifies its signature and expiry exactly once.
+     *
+     * @throws InvalidTokenException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        return verifier.verify(token);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValidFor(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        try {
+            return isTokenValidFor(verifyToken(token), userDetails);
+        } catch (InvalidTokenException e) {
+            return false;
+        }
     }
-    
-    public String extractEmail(String token) {
-        return extractClaim(token, claims -> claims.get("email", String.class));
+
+    public String extractUsername(String token) {
+        return verifyToken(token).getSubject();
     }
-    
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+
+    public Long extractUserId(String token) {
+        return verifyToken(token).getUserId();
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public String extractEmail(String token) {
+        return verifyToken(token).getEmail();
     }
 }
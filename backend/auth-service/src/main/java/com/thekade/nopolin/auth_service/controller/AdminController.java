@@ -0,0 +1,134 @@
+package com.thekade.nopolin.auth_service.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.thekade.nopolin.auth_service.dto.BulkUserRequest;
+import com.thekade.nopolin.auth_service.dto.BulkUserResponse;
+import com.thekade.nopolin.auth_service.dto.LoginLockoutResponse;
+import com.thekade.nopolin.auth_service.dto.UserImportReport;
+import com.thekade.nopolin.auth_service.dto.UserPageResponse;
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.repository.UserFilter;
+import com.thekade.nopolin.auth_service.service.LoginThrottle;
+import com.thekade.nopolin.auth_service.service.UserExportService;
+import com.thekade.nopolin.auth_service.service.UserImportService;
+import com.thekade.nopolin.auth_service.service.UserService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final LoginThrottle loginThrottle;
+    private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+
+    @GetMapping("/users")
+    public ResponseEntity<UserPageResponse> listUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) Boolean active) {
+        return ResponseEntity.ok(userService.listUsers(after, limit, role, active));
+    }
+
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") UserExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Role role) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    userExportService.export(gzipOut, format, role);
+                }
+            } else {
+                userExportService.export(out, format, role);
+            }
+        };
+        String extension = format == UserExportService.Format.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == UserExportService.Format.CSV
+                        ? TEXT_CSV
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + extension + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @PostMapping(value = "/users/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    public ResponseEntity<UserImportReport> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.JSON;
+        return ResponseEntity.ok(userImportService.importUsers(body, format));
+    }
+
+    @PostMapping("/users/bulk/activate")
+    public ResponseEntity<BulkUserResponse> bulkActivate(@RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(new BulkUserResponse(userService.bulkActivate(toFilter(request))));
+    }
+
+    @PostMapping("/users/bulk/deactivate")
+    public ResponseEntity<BulkUserResponse> bulkDeactivate(@RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(new BulkUserResponse(userService.bulkDeactivate(toFilter(request))));
+    }
+
+    @PostMapping("/users/bulk/delete")
+    public ResponseEntity<BulkUserResponse> bulkDelete(@RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(new BulkUserResponse(userService.bulkDelete(toFilter(request))));
+    }
+
+    private static UserFilter toFilter(BulkUserRequest request) {
+        return new UserFilter(request.getIds(), request.getRole(), request.getInactiveSince());
+    }
+
+    @GetMapping("/login-lockouts")
+    public ResponseEntity<List<LoginLockoutResponse>> getLoginLockouts() {
+        return ResponseEntity.ok(loginThrottle.activeLockouts());
+    }
+
+    @DeleteMapping("/login-lockouts")
+    public ResponseEntity<Void> clearLoginLockouts(
+            @RequestParam(required = false) String dimension,
+            @RequestParam(required = false) String key) {
+        if (dimension == null) {
+            loginThrottle.clearAll();
+            return ResponseEntity.noContent().build();
+        }
+        return loginThrottle.clear(dimension, key)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
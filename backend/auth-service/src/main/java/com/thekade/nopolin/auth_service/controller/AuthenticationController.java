@@ -7,14 +7,23 @@ import com.thekade.nopolin.auth_service.dto.RefreshTokenRequest;
 import com.thekade.nopolin.auth_service.dto.RegisterRequest;
 import com.thekade.nopolin.auth_service.dto.UpdatePasswordRequest;
 import com.thekade.nopolin.auth_service.dto.UserExistsRequest;
+import com.thekade.nopolin.auth_service.exception.LoginThrottledException;
+import com.thekade.nopolin.auth_service.exception.PasswordHashingRejectedException;
 import com.thekade.nopolin.auth_service.repository.UserRepository;
 import com.thekade.nopolin.auth_service.service.AuthenticationService;
+import com.thekade.nopolin.auth_service.service.UserExistenceService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -29,6 +38,11 @@ public class AuthenticationController {
 
     private final AuthenticationService service;
 
+    private final UserExistenceService userExistenceService;
+
+    @Value("${auth.login-throttle.trust-forwarded-for:true}")
+    private boolean trustForwardedFor;
+
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponse> register(
             @RequestBody RegisterRequest request) {
@@ -37,8 +51,9 @@ public class AuthenticationController {
 
     @PostMapping("/authenticate")
     public ResponseEntity<AuthenticationResponse> authenticate(
-            @RequestBody AuthenticationRequest request) {
-        return ResponseEntity.ok(service.authenticate(request));
+            @RequestBody AuthenticationRequest request,
+            HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(service.authenticate(request, clientIp(httpRequest)));
     }
 
     @PostMapping("/refresh")
@@ -46,6 +61,14 @@ public class AuthenticationController {
         return ResponseEntity.ok(service.refreshToken(request.getRefreshToken()));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (authorization.startsWith("Bearer ")) {
+            service.logout(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/exists")
     public ResponseEntity<Boolean> checkUserExists(
             @RequestBody UserExistsRequest request) {
@@ -53,10 +76,23 @@ public class AuthenticationController {
         return ResponseEntity.ok(exists);
     }
 
+    /**
+     * Resolves many (id, username, role) checks in one call; role may be
+     * omitted. Returns one boolean per tuple, in request order.
+     */
+    @PostMapping("/exists/batch")
+    public ResponseEntity<boolean[]> checkUsersExist(
+            @RequestBody List<UserExistsRequest> request) {
+        return ResponseEntity.ok(userExistenceService.exist(request));
+    }
+
+    /** Called by every client on load; the gateway may share the answer for a few seconds. */
     @GetMapping("/exists/admin")
     public ResponseEntity<Boolean> checkAdminExists() {
         boolean exists = service.checkAdminExists();
-        return ResponseEntity.ok(exists);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(5)).cachePublic())
+                .body(exists);
     }
 
     @PutMapping("/updatePassword")
@@ -66,4 +102,37 @@ public class AuthenticationController {
         return ResponseEntity.ok().build();
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Void> handleLoginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Void> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        LOGGER.warning(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    /**
+     * The gateway appends the caller's address to X-Forwarded-For, so the last
+     * entry is the one it observed; earlier entries are client-supplied.
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (trustForwardedFor && forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            return hops[hops.length - 1].trim();
+        }
+        return request.getRemoteAddr();
+    }
+
 }
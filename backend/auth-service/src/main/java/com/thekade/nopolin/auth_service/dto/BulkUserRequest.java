@@ -0,0 +1,23 @@
+package com.thekade.nopolin.auth_service.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.thekade.nopolin.auth_service.entity.Role;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRequest {
+    /** Explicit user ids; when absent the filter applies to all non-admin users. */
+    private List<Long> ids;
+    private Role role;
+    /** Only users deactivated at or before this instant. */
+    private Instant inactiveSince;
+}
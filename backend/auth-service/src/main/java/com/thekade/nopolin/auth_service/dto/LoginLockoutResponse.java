@@ -0,0 +1,19 @@
+package com.thekade.nopolin.auth_service.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginLockoutResponse {
+    private String dimension;
+    private String key;
+    private double recentFailures;
+    private Instant lockedUntil;
+}
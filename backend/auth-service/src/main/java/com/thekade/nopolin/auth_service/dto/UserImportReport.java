@@ -0,0 +1,31 @@
+package com.thekade.nopolin.auth_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportReport {
+    private long received;
+    private long inserted;
+    private long failed;
+    /** First rejected rows, capped; {@link #failed} holds the full count. */
+    private List<RowError> errors;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String username;
+        private String reason;
+    }
+}
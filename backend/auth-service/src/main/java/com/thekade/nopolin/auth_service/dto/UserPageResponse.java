@@ -0,0 +1,20 @@
+package com.thekade.nopolin.auth_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageResponse {
+    private List<UserResponse> users;
+    /** Pass as {@code after} to fetch the next page; null on the last page. */
+    private Long nextCursor;
+    /** Estimated size of the whole users table, ignoring filters. */
+    private long estimatedTotal;
+}
@@ -0,0 +1,52 @@
+package com.thekade.nopolin.auth_service.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Revokes either one access token, by {@code tokenId}, or every token issued
+ * to {@code userId} before {@code notBefore}. Read by every service that
+ * accepts access tokens; rows are useless once {@code expiresAt} has passed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "access_token_revocations", indexes = {
+        @Index(name = "idx_access_token_revocations_created_at", columnList = "created_at"),
+        @Index(name = "idx_access_token_revocations_expires_at", columnList = "expires_at")
+})
+public class AccessTokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+
+    @Column(name = "not_before")
+    private Instant notBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -1,5 +1,6 @@
 package com.thekade.nopolin.auth_service.entity;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -57,6 +58,9 @@ public class User implements UserDetails {
     @Column(name = "active", nullable = false)
     private boolean active = true;
 
+    @Column(name = "deactivated_at")
+    private Instant deactivatedAt;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
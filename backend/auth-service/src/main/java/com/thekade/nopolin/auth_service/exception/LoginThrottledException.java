@@ -0,0 +1,18 @@
+package com.thekade.nopolin.auth_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown before any password check when the username or client address has
+ * too many recent login failures.
+ */
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.thekade.nopolin.auth_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the password hashing executor is saturated and the request
+ * should be retried later instead of queueing behind other hashes.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
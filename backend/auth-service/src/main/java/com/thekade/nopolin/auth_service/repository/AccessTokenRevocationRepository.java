@@ -0,0 +1,34 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.thekade.nopolin.auth_service.entity.AccessTokenRevocation;
+
+public interface AccessTokenRevocationRepository extends JpaRepository<AccessTokenRevocation, Long> {
+
+    /** Inserts one watermark row per user in a single statement. */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO access_token_revocations (user_id, not_before, expires_at, created_at) "
+            + "SELECT u, :notBefore, :expiresAt, now() FROM unnest(ARRAY[:userIds]) AS u",
+            nativeQuery = true)
+    int insertUserWatermarks(
+            @Param("userIds") Collection<Long> userIds,
+            @Param("notBefore") Instant notBefore,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM access_token_revocations WHERE id IN ("
+            + "SELECT id FROM access_token_revocations WHERE expires_at < now() "
+            + "LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int deleteExpired(@Param("batchSize") int batchSize);
+}
@@ -0,0 +1,38 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Conditional updates on the refresh_tokens table that need their affected rows
+ * back. Implemented with plain JDBC in {@link RefreshTokenOperationsImpl}.
+ */
+public interface RefreshTokenOperations {
+
+    /** Family and owner of a token that was consumed by {@link #consume(String)}. */
+    record ConsumedToken(UUID familyId, Long userId) {
+    }
+
+    /**
+     * Revokes the token if it is still live, so that of two concurrent
+     * refreshes with the same token only one succeeds.
+     *
+     * @return the token's family when it was live, empty otherwise
+     */
+    Optional<ConsumedToken> consume(String tokenHash);
+
+    /** @return hashes of the tokens that this call revoked */
+    List<String> revokeFamily(UUID familyId);
+
+    /** @return number of tokens revoked */
+    int revokeByUserIds(Collection<Long> userIds);
+
+    /** Deletes up to {@code batchSize} expired tokens. */
+    int deleteExpired(int batchSize);
+
+    /** Streams every revoked, unexpired token to the callback. */
+    void forEachRevoked(BiConsumer<String, UUID> callback);
+}
@@ -0,0 +1,74 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class RefreshTokenOperationsImpl implements RefreshTokenOperations {
+
+    private static final String CONSUME =
+            "UPDATE refresh_tokens SET revoked = true "
+            + "WHERE token_hash = :hash AND revoked = false AND expires_at > now() "
+            + "RETURNING family_id, user_id";
+
+    private static final String REVOKE_FAMILY =
+            "UPDATE refresh_tokens SET revoked = true "
+            + "WHERE family_id = :family AND revoked = false RETURNING token_hash";
+
+    private static final String REVOKE_BY_USER_IDS =
+            "UPDATE refresh_tokens SET revoked = true WHERE user_id IN (:userIds) AND revoked = false";
+
+    // SKIP LOCKED lets several replicas purge at the same time without waiting on each other.
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM refresh_tokens WHERE id IN ("
+            + "SELECT id FROM refresh_tokens WHERE expires_at < now() "
+            + "LIMIT :batchSize FOR UPDATE SKIP LOCKED)";
+
+    private static final String SELECT_REVOKED =
+            "SELECT token_hash, family_id FROM refresh_tokens WHERE revoked = true AND expires_at > now()";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<ConsumedToken> consume(String tokenHash) {
+        List<ConsumedToken> rows = jdbcTemplate.query(CONSUME, Map.of("hash", tokenHash),
+                (rs, rowNum) -> new ConsumedToken(rs.getObject(1, UUID.class), rs.getLong(2)));
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<String> revokeFamily(UUID familyId) {
+        return jdbcTemplate.queryForList(REVOKE_FAMILY, Map.of("family", familyId), String.class);
+    }
+
+    @Override
+    public int revokeByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(REVOKE_BY_USER_IDS, Map.of("userIds", userIds));
+    }
+
+    @Override
+    public int deleteExpired(int batchSize) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Map.of("batchSize", batchSize));
+    }
+
+    @Override
+    public void forEachRevoked(BiConsumer<String, UUID> callback) {
+        jdbcTemplate.getJdbcTemplate().query(con -> {
+            var statement = con.prepareStatement(SELECT_REVOKED);
+            statement.setFetchSize(1000);
+            return statement;
+        }, (RowCallbackHandler) rs -> callback.accept(rs.getString(1), rs.getObject(2, UUID.class)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.thekade.nopolin.auth_service.entity.RefreshToken;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>, RefreshTokenOperations {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+}
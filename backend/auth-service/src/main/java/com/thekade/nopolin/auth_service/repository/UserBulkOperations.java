@@ -0,0 +1,45 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.thekade.nopolin.auth_service.dto.UserExistsRequest;
+import com.thekade.nopolin.auth_service.entity.User;
+
+/**
+ * Set-based operations on the users table that bypass the persistence
+ * context. Implemented with plain JDBC in {@link UserBulkOperationsImpl}.
+ */
+public interface UserBulkOperations {
+
+    /**
+     * Inserts the users in one JDBC batch. Rows that collide with an existing
+     * username, email or phone number are skipped.
+     *
+     * @return per-row update counts: 1 when inserted, 0 when skipped
+     */
+    int[] insertBatch(List<User> users);
+
+    /**
+     * Activates or deactivates every matching user whose state differs, in a
+     * single UPDATE.
+     *
+     * @return ids of the users that changed
+     */
+    List<Long> updateActive(UserFilter filter, boolean active);
+
+    /**
+     * Deletes every matching user in a single DELETE.
+     *
+     * @return ids of the deleted users
+     */
+    List<Long> delete(UserFilter filter);
+
+    /**
+     * Checks every (id, username, role) tuple with one query. A null role
+     * matches any role.
+     *
+     * @return bit {@code i} set when tuple {@code i} matches a user
+     */
+    BitSet findExisting(List<UserExistsRequest> tuples);
+}
@@ -0,0 +1,106 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.BitSet;
+import java.util.List;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.thekade.nopolin.auth_service.dto.UserExistsRequest;
+import com.thekade.nopolin.auth_service.entity.User;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class UserBulkOperationsImpl implements UserBulkOperations {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, password, email, role, phone_number, active) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    // Tuples are sent as three parallel arrays; ordinality keeps their positions.
+    private static final String FIND_EXISTING =
+            "SELECT t.ord FROM unnest(?, ?, ?) WITH ORDINALITY AS t(id, username, role, ord) "
+            + "JOIN users u ON u.user_id = t.id AND u.username = t.username "
+            + "AND (t.role IS NULL OR u.role = t.role)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] insertBatch(List<User> users) {
+        return jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_USER, users, users.size(), (ps, user) -> {
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getPassword());
+            ps.setString(3, user.getEmail());
+            ps.setString(4, user.getRole().name());
+            ps.setString(5, user.getPhoneNumber());
+            ps.setBoolean(6, user.isActive());
+        })[0];
+    }
+
+    @Override
+    public List<Long> updateActive(UserFilter filter, boolean active) {
+        MapSqlParameterSource params = new MapSqlParameterSource("active", active);
+        String sql = "UPDATE users SET active = :active, "
+                + "deactivated_at = CASE WHEN :active THEN NULL ELSE now() END "
+                + "WHERE active <> :active AND " + where(filter, params)
+                + " RETURNING user_id";
+        return jdbcTemplate.queryForList(sql, params, Long.class);
+    }
+
+    @Override
+    public List<Long> delete(UserFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "DELETE FROM users WHERE " + where(filter, params) + " RETURNING user_id";
+        return jdbcTemplate.queryForList(sql, params, Long.class);
+    }
+
+    @Override
+    public BitSet findExisting(List<UserExistsRequest> tuples) {
+        BitSet existing = new BitSet(tuples.size());
+        if (tuples.isEmpty()) {
+            return existing;
+        }
+        Long[] ids = new Long[tuples.size()];
+        String[] usernames = new String[tuples.size()];
+        String[] roles = new String[tuples.size()];
+        for (int i = 0; i < tuples.size(); i++) {
+            UserExistsRequest tuple = tuples.get(i);
+            ids[i] = tuple.getId();
+            usernames[i] = tuple.getUsername();
+            roles[i] = tuple.getRole() != null ? tuple.getRole().name() : null;
+        }
+        jdbcTemplate.getJdbcTemplate().query(FIND_EXISTING, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setArray(2, connection.createArrayOf("varchar", usernames));
+            ps.setArray(3, connection.createArrayOf("varchar", roles));
+        }, (RowCallbackHandler) rs -> existing.set(rs.getInt(1) - 1));
+        return existing;
+    }
+
+    private static String where(UserFilter filter, MapSqlParameterSource params) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("A bulk user operation needs ids, a role or inactiveSince");
+        }
+        StringBuilder where = new StringBuilder();
+        if (filter.ids() != null && !filter.ids().isEmpty()) {
+            where.append("user_id IN (:ids)");
+            params.addValue("ids", filter.ids());
+        } else {
+            where.append("role <> 'ADMIN'");
+        }
+        if (filter.role() != null) {
+            where.append(" AND role = :role");
+            params.addValue("role", filter.role().name());
+        }
+        if (filter.inactiveSince() != null) {
+            where.append(" AND active = false AND (deactivated_at IS NULL OR deactivated_at <= :inactiveSince)");
+            params.addValue("inactiveSince", Timestamp.from(filter.inactiveSince()));
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.thekade.nopolin.auth_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import com.thekade.nopolin.auth_service.entity.Role;
+
+/**
+ * Selects users for set-based operations. Null criteria are ignored, but at
+ * least one must be given. ADMIN accounts are only matched by explicit id.
+ *
+ * @param inactiveSince only users deactivated at or before this instant
+ */
+public record UserFilter(Collection<Long> ids, Role role, Instant inactiveSince) {
+
+    public static UserFilter byIds(Collection<Long> ids) {
+        return new UserFilter(ids, null, null);
+    }
+
+    public boolean isEmpty() {
+        return (ids == null || ids.isEmpty()) && role == null && inactiveSince == null;
+    }
+}
@@ -1,19 +1,27 @@
 package com.thekade.nopolin.auth_service.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.thekade.nopolin.auth_service.dto.UserResponse;
 import com.thekade.nopolin.auth_service.entity.User;
 import com.thekade.nopolin.auth_service.entity.Role;
 
+import jakarta.persistence.QueryHint;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+
+public interface UserRepository extends JpaRepository<User, Long>, UserBulkOperations {
 
     Optional<User> findByUsername(String username);
 
@@ -32,4 +40,44 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByUsernameAndRoleAndEmail(String username, Role role , String email);
 
+    @Query("SELECT u.id FROM User u WHERE u.active = false")
+    List<Long> findInactiveUserIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.active = true AND u.id IN :ids")
+    List<Long> findActiveUserIdsIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset page of users with an id greater than {@code afterId}, projected
+     * straight into {@link UserResponse} without loading managed entities.
+     */
+    @Query("SELECT new com.thekade.nopolin.auth_service.dto.UserResponse("
+            + "u.id, u.username, u.email, u.phoneNumber, u.role, u.active) "
+            + "FROM User u "
+            + "WHERE u.id > :afterId AND u.role IN :roles AND u.active IN :activeStates "
+            + "ORDER BY u.id")
+    List<UserResponse> findPageAfter(
+            @Param("afterId") long afterId,
+            @Param("roles") Collection<Role> roles,
+            @Param("activeStates") Collection<Boolean> activeStates,
+            Limit limit);
+
+    /**
+     * Streams users over a read-only server-side cursor. Must be consumed, and
+     * closed, inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.thekade.nopolin.auth_service.dto.UserResponse("
+            + "u.id, u.username, u.email, u.phoneNumber, u.role, u.active) "
+            + "FROM User u WHERE u.role IN :roles ORDER BY u.id")
+    Stream<UserResponse> streamResponsesByRoleIn(@Param("roles") Collection<Role> roles);
+
+    /** Planner row estimate for the users table; avoids a full COUNT(*). */
+    @Query(value = "SELECT CAST(GREATEST(reltuples, 0) AS bigint) FROM pg_class WHERE oid = 'users'::regclass",
+            nativeQuery = true)
+    long estimateUserCount();
+
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.thekade.nopolin.auth_service.config.JwtService;
+import com.thekade.nopolin.auth_service.entity.AccessTokenRevocation;
+import com.thekade.nopolin.auth_service.repository.AccessTokenRevocationRepository;
+import com.thekade.nopolin.security_common.AccessTokenDenylist;
+
+/**
+ * Records access token revocations for {@link AccessTokenDenylist} to pick up,
+ * here and in the other services.
+ */
+@Service
+public class AccessTokenRevocationService {
+
+    private static final int INSERT_CHUNK_SIZE = 10_000;
+
+    private final AccessTokenRevocationRepository revocationRepository;
+    private final JwtService jwtService;
+    private final int purgeBatchSize;
+
+    public AccessTokenRevocationService(
+            AccessTokenRevocationRepository revocationRepository,
+            JwtService jwtService,
+            @Value("${auth.token-denylist.purge-batch-size:1000}") int purgeBatchSize) {
+        this.revocationRepository = revocationRepository;
+        this.jwtService = jwtService;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /** Revokes a single token until it would have expired. */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        revocationRepository.save(AccessTokenRevocation.builder()
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /** Revokes every access token issued to the users so far. */
+    public void revokeAllFor(List<Long> userIds) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(jwtService.getAccessTokenLifetime());
+        for (int from = 0; from < userIds.size(); from += INSERT_CHUNK_SIZE) {
+            revocationRepository.insertUserWatermarks(
+                    userIds.subList(from, Math.min(userIds.size(), from + INSERT_CHUNK_SIZE)), now, expiresAt);
+        }
+    }
+
+    /**
+     * Runs before the user change commits, inside its transaction, so the
+     * watermarks commit or roll back with it. After commit there would be no
+     * transaction left for the insert to join.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        if (event.type() != UsersChangedEvent.Type.ACTIVATED) {
+            revokeAllFor(event.userIds());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${auth.token-denylist.purge-interval:PT1H}",
+            fixedDelayString = "${auth.token-denylist.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int deleted;
+        do {
+            deleted = revocationRepository.deleteExpired(purgeBatchSize);
+        } while (deleted == purgeBatchSize);
+    }
+}
@@ -6,15 +6,20 @@ import com.thekade.nopolin.auth_service.dto.RegisterRequest;
 import com.thekade.nopolin.auth_service.entity.Role;
 import com.thekade.nopolin.auth_service.entity.User;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.thekade.nopolin.auth_service.config.JwtService;
+import com.thekade.nopolin.security_common.InvalidTokenException;
+import com.thekade.nopolin.security_common.VerifiedToken;
 import com.thekade.nopolin.auth_service.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
@@ -22,6 +27,10 @@ public class AuthenticationService {
   private final PasswordEncoder passwordEncoder;
   private final JwtService jwtService;
   private final AuthenticationManager authenticationManager;
+  private final UserCache userCache;
+  private final LoginThrottle loginThrottle;
+  private final RefreshTokenService refreshTokenService;
+  private final AccessTokenRevocationService accessTokenRevocationService;
 
   public AuthenticationResponse register(RegisterRequest request) {
     var user = User.builder()
@@ -35,7 +44,7 @@ public class AuthenticationService {
     repository.save(user);
 
     var accessToken = jwtService.generateToken(user);
-    var refreshToken = jwtService.generateRefreshToken(user); // Generate refresh token
+    var refreshToken = refreshTokenService.issue(user); // Generate refresh token
 
     return AuthenticationResponse.builder()
         .accessToken(accessToken)
@@ -44,16 +53,21 @@ public class AuthenticationService {
   }
 
   public AuthenticationResponse refreshToken(String refreshToken) {
-    String username = jwtService.extractUsername(refreshToken); 
-    var user = repository.findByUsername(username) // Retrieve user from DB
+    VerifiedToken claims;
+    try {
+        claims = jwtService.verifyToken(refreshToken);
+    } catch (InvalidTokenException e) {
+        throw new RuntimeException("Invalid refresh token");
+    }
+    var user = userCache.findByUsername(claims.getSubject())
         .orElseThrow(() -> new RuntimeException("User not found"));
 
-    if (!jwtService.validateToken(refreshToken, user)) {
+    if (!jwtService.isTokenValidFor(claims, user)) {
         throw new RuntimeException("Invalid refresh token");
     }
 
+    var newRefreshToken = refreshTokenService.rotate(claims, user);
     var newAccessToken = jwtService.generateToken(user);
-    var newRefreshToken = jwtService.generateRefreshToken(user);
 
     return AuthenticationResponse.builder()
             .accessToken(newAccessToken)
@@ -62,16 +76,23 @@ public class AuthenticationService {
 }
 
 
-  public AuthenticationResponse authenticate(AuthenticationRequest request) {
-    authenticationManager.authenticate(
-        new UsernamePasswordAuthenticationToken(
-            request.getUsername(),
-            request.getPassword()));
-    var user = repository.findByUsername(request.getUsername())
+  public AuthenticationResponse authenticate(AuthenticationRequest request, String clientIp) {
+    loginThrottle.checkAllowed(request.getUsername(), clientIp);
+    try {
+      authenticationManager.authenticate(
+          new UsernamePasswordAuthenticationToken(
+              request.getUsername(),
+              request.getPassword()));
+    } catch (BadCredentialsException e) {
+      loginThrottle.recordFailure(request.getUsername(), clientIp);
+      throw e;
+    }
+    loginThrottle.recordSuccess(request.getUsername());
+    var user = userCache.findByUsername(request.getUsername())
         .orElseThrow();
 
     var jwtToken = jwtService.generateToken(user);
-    var refreshToken = jwtService.generateRefreshToken(user); // Generate refresh token
+    var refreshToken = refreshTokenService.issue(user); // Generate refresh token
 
 
     return AuthenticationResponse.builder()
@@ -80,6 +101,19 @@ public class AuthenticationService {
         .build();
   }
 
+  /** Revokes the presented access token; an invalid token is ignored. */
+  public void logout(String accessToken) {
+    VerifiedToken claims;
+    try {
+        claims = jwtService.verifyToken(accessToken);
+    } catch (InvalidTokenException e) {
+        return;
+    }
+    if (claims.getTokenId() != null && claims.getExpiresAt() != null) {
+        accessTokenRevocationService.revokeToken(claims.getTokenId(), claims.getExpiresAt());
+    }
+  }
+
   public boolean userExists(Long id, String username, Role role) {
         return repository.existsByIdAndUsernameAndRole(id, username, role);
   }
@@ -98,6 +132,9 @@ public class AuthenticationService {
     user.ifPresent(u -> {
       u.setPassword(passwordEncoder.encode(password));
       repository.save(u);
+      userCache.evict(u.getId(), u.getUsername());
+      refreshTokenService.revokeAll(u.getId());
+      accessTokenRevocationService.revokeAllFor(List.of(u.getId()));
     });
   }
 
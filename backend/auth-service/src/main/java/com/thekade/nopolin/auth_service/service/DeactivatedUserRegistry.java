@@ -0,0 +1,76 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory set of deactivated user ids, so stateless token authentication can
+ * honour deactivation without a database read per request. Seeded from the
+ * database on startup, kept current by {@link UsersChangedEvent}s and refreshed
+ * from the database when another replica announces a user change.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeactivatedUserRegistry {
+
+    private final UserRepository userRepository;
+    private final UserCacheInvalidationChannel invalidationChannel;
+
+    private final Set<Long> deactivatedIds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void load() {
+        deactivatedIds.addAll(userRepository.findInactiveUserIds());
+        invalidationChannel.subscribe(invalidation -> {
+            if (invalidation.isAll()) {
+                Set<Long> inactive = Set.copyOf(userRepository.findInactiveUserIds());
+                deactivatedIds.retainAll(inactive);
+                deactivatedIds.addAll(inactive);
+            } else if (!invalidation.userIds().isEmpty()) {
+                refresh(invalidation.userIds());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        if (event.type() == UsersChangedEvent.Type.ACTIVATED) {
+            deactivatedIds.removeAll(event.userIds());
+        } else {
+            deactivatedIds.addAll(event.userIds());
+        }
+    }
+
+    /** Re-reads the given users; ids that no longer exist stay blocked. */
+    private void refresh(List<Long> userIds) {
+        Set<Long> active = Set.copyOf(userRepository.findActiveUserIdsIn(userIds));
+        for (Long userId : userIds) {
+            if (active.contains(userId)) {
+                markActive(userId);
+            } else {
+                markDeactivated(userId);
+            }
+        }
+    }
+
+    public boolean isDeactivated(Long userId) {
+        return userId != null && deactivatedIds.contains(userId);
+    }
+
+    public void markDeactivated(Long userId) {
+        deactivatedIds.add(userId);
+    }
+
+    public void markActive(Long userId) {
+        deactivatedIds.remove(userId);
+    }
+}
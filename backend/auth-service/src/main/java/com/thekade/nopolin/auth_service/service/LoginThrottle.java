@@ -0,0 +1,125 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.thekade.nopolin.auth_service.dto.LoginLockoutResponse;
+import com.thekade.nopolin.auth_service.exception.LoginThrottledException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rejects login attempts for usernames and client addresses with too many
+ * recent failures, before the request reaches the password check.
+ */
+@Component
+public class LoginThrottle {
+
+    public static final String USERNAME = "username";
+    public static final String CLIENT_IP = "ip";
+
+    private final SlidingWindowFailureCounter byUsername;
+    private final SlidingWindowFailureCounter byClientIp;
+    private final Counter failures;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedByClientIp;
+    private final Counter lockouts;
+
+    public LoginThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${auth.login-throttle.capacity:65536}") int capacity,
+            @Value("${auth.login-throttle.stripes:64}") int stripes,
+            @Value("${auth.login-throttle.window:5m}") Duration window,
+            @Value("${auth.login-throttle.username-threshold:5}") int usernameThreshold,
+            @Value("${auth.login-throttle.ip-threshold:50}") int ipThreshold,
+            @Value("${auth.login-throttle.base-lockout:30s}") Duration baseLockout,
+            @Value("${auth.login-throttle.max-lockout:1h}") Duration maxLockout) {
+        this.byUsername = new SlidingWindowFailureCounter(capacity, stripes, window.toMillis(),
+                usernameThreshold, baseLockout.toMillis(), maxLockout.toMillis());
+        this.byClientIp = new SlidingWindowFailureCounter(capacity, stripes, window.toMillis(),
+                ipThreshold, baseLockout.toMillis(), maxLockout.toMillis());
+        this.failures = meterRegistry.counter("auth.login.failures");
+        this.rejectedByUsername = meterRegistry.counter("auth.login.throttle.rejected", "dimension", USERNAME);
+        this.rejectedByClientIp = meterRegistry.counter("auth.login.throttle.rejected", "dimension", CLIENT_IP);
+        this.lockouts = meterRegistry.counter("auth.login.throttle.lockouts");
+    }
+
+    public void checkAllowed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        long usernameLockedUntil = byUsername.lockedUntil(key(username), now);
+        if (usernameLockedUntil > 0) {
+            rejectedByUsername.increment();
+            throw new LoginThrottledException("Too many failed logins for this account", retryAfter(usernameLockedUntil, now));
+        }
+        long ipLockedUntil = byClientIp.lockedUntil(key(clientIp), now);
+        if (ipLockedUntil > 0) {
+            rejectedByClientIp.increment();
+            throw new LoginThrottledException("Too many failed logins from this address", retryAfter(ipLockedUntil, now));
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        failures.increment();
+        if (byUsername.recordFailure(key(username), now) > 0) {
+            lockouts.increment();
+        }
+        if (byClientIp.recordFailure(key(clientIp), now) > 0) {
+            lockouts.increment();
+        }
+    }
+
+    public void recordSuccess(String username) {
+        byUsername.reset(key(username));
+    }
+
+    public List<LoginLockoutResponse> activeLockouts() {
+        long now = System.currentTimeMillis();
+        List<LoginLockoutResponse> result = new ArrayList<>();
+        byUsername.activeLockouts(now).forEach(lockout -> result.add(toResponse(USERNAME, lockout)));
+        byClientIp.activeLockouts(now).forEach(lockout -> result.add(toResponse(CLIENT_IP, lockout)));
+        return result;
+    }
+
+    /** Clears one key, or every entry of the dimension when {@code key} is null. */
+    public boolean clear(String dimension, String key) {
+        SlidingWindowFailureCounter counter = switch (dimension) {
+            case USERNAME -> byUsername;
+            case CLIENT_IP -> byClientIp;
+            default -> throw new IllegalArgumentException("Unknown lockout dimension: " + dimension);
+        };
+        if (key == null) {
+            counter.resetAll();
+            return true;
+        }
+        return counter.reset(key);
+    }
+
+    public void clearAll() {
+        byUsername.resetAll();
+        byClientIp.resetAll();
+    }
+
+    private static LoginLockoutResponse toResponse(String dimension, SlidingWindowFailureCounter.Lockout lockout) {
+        return LoginLockoutResponse.builder()
+                .dimension(dimension)
+                .key(lockout.key())
+                .recentFailures(lockout.recentFailures())
+                .lockedUntil(Instant.ofEpochMilli(lockout.lockedUntilMillis()))
+                .build();
+    }
+
+    private static String key(String value) {
+        return value != null ? value : "";
+    }
+
+    private static long retryAfter(long lockedUntil, long now) {
+        return Math.max(1, (lockedUntil - now + 999) / 1000);
+    }
+}
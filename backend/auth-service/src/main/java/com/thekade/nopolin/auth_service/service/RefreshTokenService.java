@@ -0,0 +1,215 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thekade.nopolin.auth_service.config.JwtService;
+import com.thekade.nopolin.auth_service.entity.RefreshToken;
+import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.auth_service.repository.RefreshTokenOperations.ConsumedToken;
+import com.thekade.nopolin.auth_service.repository.RefreshTokenRepository;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Server-side store of refresh tokens. Every refresh consumes the presented
+ * token and issues its successor in the same family; presenting a consumed
+ * token again is treated as theft and revokes the whole family.
+ *
+ * Revoked tokens are tracked in memory by a Bloom filter, backed by an exact
+ * cache of recent revocations, so a replayed token is usually rejected without
+ * touching the database. The filter is only a shortcut: tokens revoked on
+ * another replica are caught by the conditional UPDATE that consumes a token.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger LOGGER = Logger.getLogger(RefreshTokenService.class.getName());
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<String, UUID> recentlyRevoked;
+    private final long expectedRevocations;
+    private final int purgeBatchSize;
+    private final AtomicLong indexedRevocations = new AtomicLong();
+    private final Counter reuseDetected;
+
+    private volatile RevokedTokenFilter revokedFilter;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            JwtService jwtService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${auth.refresh-tokens.revoked-index.expected-size:1000000}") long expectedRevocations,
+            @Value("${auth.refresh-tokens.revoked-index.hot-size:100000}") long hotSize,
+            @Value("${auth.refresh-tokens.purge-batch-size:1000}") int purgeBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.recentlyRevoked = Caffeine.newBuilder()
+                .maximumSize(hotSize)
+                .expireAfterWrite(jwtService.getRefreshTokenLifetime())
+                .build();
+        this.expectedRevocations = expectedRevocations;
+        this.purgeBatchSize = purgeBatchSize;
+        this.reuseDetected = Counter.builder("auth.refresh_tokens.reuse_detected")
+                .description("Rotated refresh tokens presented again; each revokes a token family")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.revoked_index.bytes", this, s -> s.revokedFilter.sizeInBytes())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadIndex() {
+        rebuildIndex();
+    }
+
+    /** Issues the first token of a new family, on login or registration. */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Consumes the presented token and returns its successor.
+     *
+     * @throws RuntimeException if the token is unknown, expired, revoked or reused
+     */
+    public String rotate(VerifiedToken claims, User user) {
+        if (claims.getTokenId() == null) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        String tokenHash = hash(claims.getTokenId());
+        if (revokedFilter.mightContain(tokenHash)) {
+            UUID family = recentlyRevoked.getIfPresent(tokenHash);
+            if (family != null) {
+                revokeFamily(family);
+                throw new RuntimeException("Invalid refresh token");
+            }
+        }
+        UUID[] family = new UUID[1];
+        String successor = transaction.execute(status -> {
+            ConsumedToken consumed = refreshTokenRepository.consume(tokenHash).orElse(null);
+            if (consumed == null || !consumed.userId().equals(user.getId())) {
+                return null;
+            }
+            family[0] = consumed.familyId();
+            return issue(user, consumed.familyId());
+        });
+        if (successor != null) {
+            markRevoked(tokenHash, family[0]);
+            return successor;
+        }
+        refreshTokenRepository.findByTokenHash(tokenHash)
+                .filter(RefreshToken::isRevoked)
+                .ifPresent(reused -> revokeFamily(reused.getFamilyId()));
+        throw new RuntimeException("Invalid refresh token");
+    }
+
+    /** Revokes every refresh token of the user, e.g. after a password change. */
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeByUserIds(List.of(userId));
+    }
+
+    /** Runs in the user change's transaction, before it commits, so the revocation commits with it. */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        if (event.type() != UsersChangedEvent.Type.ACTIVATED) {
+            refreshTokenRepository.revokeByUserIds(event.userIds());
+        }
+    }
+
+    /**
+     * Deletes expired tokens in small batches so no single statement holds
+     * locks for long, then rebuilds the revoked-token index without them.
+     */
+    @Scheduled(
+            initialDelayString = "${auth.refresh-tokens.purge-interval:PT10M}",
+            fixedDelayString = "${auth.refresh-tokens.purge-interval:PT10M}")
+    public void purgeExpired() {
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpired(purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            LOGGER.info("Purged " + purged + " expired refresh tokens");
+        }
+        rebuildIndex();
+    }
+
+    private String issue(User user, UUID familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        String token = jwtService.generateRefreshToken(user, tokenId);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(tokenId))
+                .familyId(familyId)
+                .userId(user.getId())
+                .expiresAt(Instant.now().plus(jwtService.getRefreshTokenLifetime()))
+                .build());
+        return token;
+    }
+
+    private void revokeFamily(UUID familyId) {
+        reuseDetected.increment();
+        LOGGER.warning("Refresh token reuse detected, revoking token family " + familyId);
+        for (String tokenHash : refreshTokenRepository.revokeFamily(familyId)) {
+            markRevoked(tokenHash, familyId);
+        }
+    }
+
+    private void markRevoked(String tokenHash, UUID familyId) {
+        revokedFilter.add(tokenHash);
+        recentlyRevoked.put(tokenHash, familyId);
+        indexedRevocations.incrementAndGet();
+    }
+
+    // Sized for twice the current revocations so the filter stays accurate until the next purge.
+    private void rebuildIndex() {
+        long[] count = new long[1];
+        RevokedTokenFilter filter = new RevokedTokenFilter(
+                Math.max(expectedRevocations, indexedRevocations.get() * 2), BLOOM_FALSE_POSITIVE_RATE);
+        readOnlyTransaction.executeWithoutResult(status -> refreshTokenRepository.forEachRevoked((tokenHash, family) -> {
+            filter.add(tokenHash);
+            count[0]++;
+        }));
+        revokedFilter = filter;
+        indexedRevocations.set(count[0]);
+    }
+
+    static String hash(String tokenId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(tokenId.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size, lock-striped table of login failure counters.
+ *
+ * Each key is hashed to one segment and, inside it, to a short probe sequence
+ * of slots. Counts use the two-bucket sliding window approximation (current
+ * window plus the weighted previous one). Once the estimate reaches the
+ * threshold the key is locked out, and every further lockout doubles the
+ * duration up to the configured maximum. When all probed slots are taken the
+ * least recently seen one is reused, so memory never grows past the
+ * configured capacity.
+ */
+class SlidingWindowFailureCounter {
+
+    private static final int PROBES = 8;
+    private static final int MAX_LOCKOUT_LEVEL = 30;
+
+    private final Segment[] segments;
+    private final long windowMillis;
+    private final int threshold;
+    private final long baseLockoutMillis;
+    private final long maxLockoutMillis;
+
+    record Lockout(String key, double recentFailures, long lockedUntilMillis) {
+    }
+
+    SlidingWindowFailureCounter(int capacity, int stripes, long windowMillis, int threshold,
+            long baseLockoutMillis, long maxLockoutMillis) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, stripes));
+        int slotsPerSegment = Math.max(PROBES, capacity / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(slotsPerSegment);
+        }
+        this.windowMillis = windowMillis;
+        this.threshold = threshold;
+        this.baseLockoutMillis = baseLockoutMillis;
+        this.maxLockoutMillis = maxLockoutMillis;
+    }
+
+    /** Returns the end of the key's current lockout, or 0 when it is not locked out. */
+    long lockedUntil(String key, long now) {
+        int hash = spread(key.hashCode());
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(key, hash);
+            if (slot < 0) {
+                return 0;
+            }
+            long until = segment.lockedUntil[slot];
+            return until > now ? until : 0;
+        }
+    }
+
+    /**
+     * Records one failure and returns the end of the lockout it triggered, or 0
+     * when the key is still below the threshold.
+     */
+    long recordFailure(String key, long now) {
+        int hash = spread(key.hashCode());
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.findOrClaim(key, hash, now);
+            segment.roll(slot, now, windowMillis);
+            segment.current[slot]++;
+            segment.lastSeen[slot] = now;
+            if (estimate(segment, slot, now) < threshold) {
+                return 0;
+            }
+            int level = segment.lockoutLevel[slot];
+            long duration = Math.min(maxLockoutMillis, baseLockoutMillis << level);
+            segment.lockedUntil[slot] = now + duration;
+            segment.lockoutLevel[slot] = (byte) Math.min(MAX_LOCKOUT_LEVEL, level + 1);
+            return now + duration;
+        }
+    }
+
+    boolean reset(String key) {
+        int hash = spread(key.hashCode());
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(key, hash);
+            if (slot < 0) {
+                return false;
+            }
+            segment.clear(slot);
+            return true;
+        }
+    }
+
+    void resetAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (int slot = 0; slot < segment.keys.length; slot++) {
+                    segment.clear(slot);
+                }
+            }
+        }
+    }
+
+    List<Lockout> activeLockouts(long now) {
+        List<Lockout> lockouts = new ArrayList<>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (int slot = 0; slot < segment.keys.length; slot++) {
+                    if (segment.keys[slot] != null && segment.lockedUntil[slot] > now) {
+                        lockouts.add(new Lockout(segment.keys[slot], estimate(segment, slot, now),
+                                segment.lockedUntil[slot]));
+                    }
+                }
+            }
+        }
+        return lockouts;
+    }
+
+    private double estimate(Segment segment, int slot, long now) {
+        long elapsed = now - segment.windowStart[slot];
+        if (elapsed >= 2 * windowMillis) {
+            return 0;
+        }
+        if (elapsed >= windowMillis) {
+            double previousWeight = 1.0 - (double) (elapsed - windowMillis) / windowMillis;
+            return segment.current[slot] * previousWeight;
+        }
+        double previousWeight = 1.0 - (double) elapsed / windowMillis;
+        return segment.current[slot] + segment.previous[slot] * previousWeight;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        return hash ^ (hash >>> 13);
+    }
+
+    private static final class Segment {
+        final String[] keys;
+        final int[] hashes;
+        final long[] windowStart;
+        final int[] current;
+        final int[] previous;
+        final long[] lockedUntil;
+        final long[] lastSeen;
+        final byte[] lockoutLevel;
+
+        Segment(int slots) {
+            keys = new String[slots];
+            hashes = new int[slots];
+            windowStart = new long[slots];
+            current = new int[slots];
+            previous = new int[slots];
+            lockedUntil = new long[slots];
+            lastSeen = new long[slots];
+            lockoutLevel = new byte[slots];
+        }
+
+        int find(String key, int hash) {
+            int start = Math.floorMod(hash >>> 8, keys.length);
+            for (int probe = 0; probe < PROBES; probe++) {
+                int slot = (start + probe) % keys.length;
+                if (hashes[slot] == hash && key.equals(keys[slot])) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int findOrClaim(String key, int hash, long now) {
+            int start = Math.floorMod(hash >>> 8, keys.length);
+            int victim = -1;
+            for (int probe = 0; probe < PROBES; probe++) {
+                int slot = (start + probe) % keys.length;
+                if (hashes[slot] == hash && key.equals(keys[slot])) {
+                    return slot;
+                }
+                if (keys[slot] == null) {
+                    if (victim < 0 || keys[victim] != null) {
+                        victim = slot;
+                    }
+                } else if (victim < 0 || (keys[victim] != null && evictionRank(slot, now) < evictionRank(victim, now))) {
+                    victim = slot;
+                }
+            }
+            clear(victim);
+            keys[victim] = key;
+            hashes[victim] = hash;
+            windowStart[victim] = now;
+            return victim;
+        }
+
+        /** Unlocked entries are reused before locked ones, oldest first. */
+        private long evictionRank(int slot, long now) {
+            return lockedUntil[slot] > now ? Long.MAX_VALUE / 2 + lastSeen[slot] : lastSeen[slot];
+        }
+
+        void roll(int slot, long now, long windowMillis) {
+            long elapsed = now - windowStart[slot];
+            if (elapsed < windowMillis) {
+                return;
+            }
+            previous[slot] = elapsed < 2 * windowMillis ? current[slot] : 0;
+            current[slot] = 0;
+            windowStart[slot] = now - (elapsed % windowMillis);
+        }
+
+        void clear(int slot) {
+            keys[slot] = null;
+            hashes[slot] = 0;
+            windowStart[slot] = 0;
+            current[slot] = 0;
+            previous[slot] = 0;
+            lockedUntil[slot] = 0;
+            lastSeen[slot] = 0;
+            lockoutLevel[slot] = 0;
+        }
+    }
+}
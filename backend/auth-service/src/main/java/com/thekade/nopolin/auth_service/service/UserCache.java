@@ -0,0 +1,162 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of {@link User} lookups by username and by id. Entries are
+ * evicted locally and on every other replica (through
+ * {@link UserCacheInvalidationChannel}) whenever a user changes.
+ *
+ * Each cache loads its own key through {@link Cache#get}, so an eviction of a
+ * key that is being loaded waits for the load and then removes its result. An
+ * eviction by id alone cannot see a username load in flight, so every eviction
+ * also stamps the id with a generation; a username load that finishes to find
+ * its user stamped after it started drops the result and reads again. Either
+ * way a user read before a change is never cached after the change was evicted.
+ *
+ * Cached users are shared instances: read them, but load from the repository
+ * before modifying and saving.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final UserCacheInvalidationChannel invalidationChannel;
+    private final Cache<String, User> byUsername;
+    private final Cache<Long, User> byId;
+    private final AtomicLong evictions = new AtomicLong();
+    // Generation of the last eviction per id stripe; a shared stripe only costs a spare read.
+    private final AtomicLongArray evictedAt = new AtomicLongArray(1024);
+    private volatile long allEvictedAt;
+
+    public UserCache(
+            UserRepository userRepository,
+            UserCacheInvalidationChannel invalidationChannel,
+            MeterRegistry meterRegistry,
+            @Value("${auth.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${auth.user-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.invalidationChannel = invalidationChannel;
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "users.byUsername");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        invalidationChannel.subscribe(invalidation -> {
+            if (invalidation.isAll()) {
+                evictAllLocally();
+                return;
+            }
+            evictLocally(invalidation.userIds());
+            if (invalidation.username() != null) {
+                evictLocally(null, invalidation.username());
+            }
+        });
+    }
+
+    public Optional<User> findByUsername(String username) {
+        while (true) {
+            long started = evictions.get();
+            User user = byUsername.get(username, key -> userRepository.findByUsername(key).orElse(null));
+            if (user == null || user.getId() == null || !evictedSince(user.getId(), started)) {
+                return Optional.ofNullable(user);
+            }
+            // An eviction by id may have scanned past this load; drop its result and read again.
+            byUsername.asMap().remove(username, user);
+        }
+    }
+
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(byId.get(id, key -> userRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Evicts the user on this instance and notifies the other replicas. Either
+     * argument may be {@code null} when it is not known to the caller.
+     */
+    public void evict(Long userId, String username) {
+        evictLocally(userId, username);
+        invalidationChannel.publish(userId, username);
+    }
+
+    /** Evicts a set of users changed by one bulk operation, with a single notification. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        evictLocally(event.userIds());
+        invalidationChannel.publish(event.userIds(), null);
+    }
+
+    // One pass over the username cache, however many ids there are.
+    void evictLocally(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(userIds);
+        long generation = evictions.incrementAndGet();
+        ids.forEach(id -> stamp(id, generation));
+        byId.invalidateAll(ids);
+        byUsername.asMap().values().removeIf(user -> ids.contains(user.getId()));
+    }
+
+    void evictLocally(Long userId, String username) {
+        if (userId != null) {
+            stamp(userId, evictions.incrementAndGet());
+            User cached = byId.asMap().remove(userId);
+            if (cached != null) {
+                byUsername.invalidate(cached.getUsername());
+            } else {
+                byUsername.asMap().values().removeIf(user -> userId.equals(user.getId()));
+            }
+        }
+        if (username != null) {
+            User cached = byUsername.asMap().remove(username);
+            if (cached != null && cached.getId() != null) {
+                byId.invalidate(cached.getId());
+            }
+        }
+    }
+
+    void evictAllLocally() {
+        allEvictedAt = evictions.incrementAndGet();
+        byUsername.invalidateAll();
+        byId.invalidateAll();
+    }
+
+    // Stamped before the caches are scanned, so a load the scan misses sees the stamp.
+    private void stamp(long userId, long generation) {
+        evictedAt.accumulateAndGet(stripe(userId), generation, Math::max);
+    }
+
+    private boolean evictedSince(long userId, long generation) {
+        return evictedAt.get(stripe(userId)) > generation || allEvictedAt > generation;
+    }
+
+    private int stripe(long userId) {
+        return Long.hashCode(userId) & (evictedAt.length() - 1);
+    }
+}
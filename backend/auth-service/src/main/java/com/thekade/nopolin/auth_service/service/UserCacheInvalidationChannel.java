@@ -0,0 +1,190 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Broadcasts user cache invalidations to the other auth-service replicas over
+ * Postgres LISTEN/NOTIFY. A dedicated connection is held for listening; after a
+ * reconnect subscribers receive a {@link Invalidation#all()} message because
+ * notifications sent while disconnected are lost.
+ */
+@Component
+public class UserCacheInvalidationChannel {
+
+    private static final Logger LOGGER = Logger.getLogger(UserCacheInvalidationChannel.class.getName());
+    private static final String CHANNEL = "user_cache_invalidation";
+    private static final String SEPARATOR = "|";
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more.
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CopyOnWriteArrayList<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Value("${auth.user-cache.notify.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public UserCacheInvalidationChannel(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** Users to evict; both fields empty means evict everything. */
+    public record Invalidation(List<Long> userIds, String username) {
+        static Invalidation all() {
+            return new Invalidation(List.of(), null);
+        }
+
+        public boolean isAll() {
+            return userIds.isEmpty() && username == null;
+        }
+    }
+
+    public void subscribe(Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void publish(Long userId, String username) {
+        publish(userId != null ? List.of(userId) : List.of(), username);
+    }
+
+    /**
+     * Publishes one notification for all the given users. Sets too large for a
+     * NOTIFY payload are sent as an evict-everything message instead.
+     */
+    public void publish(Collection<Long> userIds, String username) {
+        if (!enabled) {
+            return;
+        }
+        String ids = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String payload = nodeId + SEPARATOR + ids + SEPARATOR + (username != null ? username : "");
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_LENGTH) {
+            payload = nodeId + SEPARATOR + SEPARATOR;
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not publish user cache invalidation", e);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "user-cache-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnect) {
+                    dispatch(Invalidation.all());
+                }
+                backoffMs = 1000;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(5000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.log(Level.WARNING, "User cache listener disconnected, retrying in " + backoffMs + " ms", e);
+                reconnect = true;
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    /**
+     * Dispatches one notification. A payload that cannot be parsed still names
+     * users that changed somewhere, so it evicts everything rather than nothing.
+     */
+    void handle(String payload) {
+        String[] parts = payload.split("\\" + SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        List<Long> userIds;
+        try {
+            userIds = parts[1].isEmpty()
+                    ? List.of()
+                    : Arrays.stream(parts[1].split(",")).map(Long::valueOf).toList();
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Malformed user cache invalidation, evicting everything: " + payload, e);
+            dispatch(Invalidation.all());
+            return;
+        }
+        String username = parts[2].isEmpty() ? null : parts[2];
+        dispatch(new Invalidation(userIds, username));
+    }
+
+    /** A failing subscriber is logged and skipped; it must not starve the others or end the listener. */
+    private void dispatch(Invalidation invalidation) {
+        for (Consumer<Invalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "User cache invalidation subscriber failed on " + invalidation, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thekade.nopolin.auth_service.dto.UserExistsRequest;
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Answers batches of user-existence checks for other services. Tuples already
+ * known to exist are served from a per-tuple cache; the rest are resolved
+ * together in one query.
+ *
+ * Only positive answers are cached, since a user registered after a negative
+ * answer would otherwise stay invisible. Positive entries are dropped when a
+ * user is deleted here or on another replica.
+ */
+@Service
+public class UserExistenceService {
+
+    private final UserRepository userRepository;
+    private final Cache<Key, Boolean> existing;
+    private final int maxBatchSize;
+
+    public UserExistenceService(
+            UserRepository userRepository,
+            UserCacheInvalidationChannel invalidationChannel,
+            MeterRegistry meterRegistry,
+            @Value("${auth.exists-batch.max-size:5000}") int maxBatchSize,
+            @Value("${auth.exists-batch.cache.maximum-size:100000}") long cacheSize,
+            @Value("${auth.exists-batch.cache.ttl:10m}") Duration cacheTtl) {
+        this.userRepository = userRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.existing = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existing, "users.exists");
+        invalidationChannel.subscribe(invalidation -> {
+            if (invalidation.isAll()) {
+                existing.invalidateAll();
+            } else {
+                evict(invalidation.userIds());
+            }
+        });
+    }
+
+    private record Key(Long id, String username, Role role) {
+    }
+
+    /** @return one flag per tuple, in request order */
+    public boolean[] exist(List<UserExistsRequest> tuples) {
+        if (tuples.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " users per existence check");
+        }
+        boolean[] result = new boolean[tuples.size()];
+        List<Integer> missIndexes = new ArrayList<>();
+        List<UserExistsRequest> misses = new ArrayList<>();
+        for (int i = 0; i < tuples.size(); i++) {
+            UserExistsRequest tuple = tuples.get(i);
+            if (tuple.getId() == null || tuple.getUsername() == null) {
+                continue;
+            }
+            if (existing.getIfPresent(key(tuple)) != null) {
+                result[i] = true;
+            } else {
+                missIndexes.add(i);
+                misses.add(tuple);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+        BitSet found = userRepository.findExisting(misses);
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            result[missIndexes.get(i)] = true;
+            existing.put(key(misses.get(i)), Boolean.TRUE);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        if (event.type() == UsersChangedEvent.Type.DELETED) {
+            evict(event.userIds());
+        }
+    }
+
+    private void evict(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(userIds);
+        existing.asMap().keySet().removeIf(key -> ids.contains(key.id()));
+    }
+
+    private static Key key(UserExistsRequest tuple) {
+        return new Key(tuple.getId(), tuple.getUsername(), tuple.getRole());
+    }
+}
@@ -0,0 +1,129 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.thekade.nopolin.auth_service.dto.UserResponse;
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+/**
+ * Writes users to an output stream row by row from a database cursor, so heap
+ * use does not depend on the size of the users table. A failed write (for
+ * example a client disconnect) ends the transaction and closes the cursor.
+ */
+@Service
+public class UserExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final Set<Role> NON_ADMIN_ROLES = EnumSet.complementOf(EnumSet.of(Role.ADMIN));
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter rowWriter;
+
+    public UserExportService(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rowWriter = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+    }
+
+    public void export(OutputStream out, Format format, Role role) throws IOException {
+        Set<Role> roles = role == null ? NON_ADMIN_ROLES : Set.of(role);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserResponse> rows = userRepository.streamResponsesByRoleIn(roles)) {
+                    if (format == Format.CSV) {
+                        writeCsv(rows, writer);
+                    } else {
+                        writeNdjson(rows, writer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Stream<UserResponse> rows, Writer writer) throws IOException {
+        boolean empty = true;
+        try (SequenceWriter sequence = rowWriter.writeValues(writer)) {
+            for (UserResponse row : (Iterable<UserResponse>) rows::iterator) {
+                sequence.write(row);
+                empty = false;
+            }
+        }
+        if (!empty) {
+            writer.write('\n');
+        }
+    }
+
+    private void writeCsv(Stream<UserResponse> rows, Writer writer) throws IOException {
+        writer.write("id,username,email,phoneNumber,role,active\n");
+        for (UserResponse row : (Iterable<UserResponse>) rows::iterator) {
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writeCsvField(writer, row.getUsername());
+            writer.write(',');
+            writeCsvField(writer, row.getEmail());
+            writer.write(',');
+            writeCsvField(writer, row.getPhoneNumber());
+            writer.write(',');
+            writer.write(row.getRole() != null ? row.getRole().name() : "");
+            writer.write(',');
+            writer.write(row.isActive() ? "true" : "false");
+            writer.write('\n');
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,332 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.thekade.nopolin.auth_service.dto.RegisterRequest;
+import com.thekade.nopolin.auth_service.dto.UserImportReport;
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk-creates accounts from a streamed CSV or JSON upload. Rows are read in
+ * chunks, hashed in parallel and inserted with one JDBC batch per chunk, so a
+ * file of any size is processed in constant memory. No tokens are issued.
+ */
+@Service
+public class UserImportService {
+
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_PHONE_LENGTH = 13;
+
+    private final UserRepository userRepository;
+    private final ObjectReader rowReader;
+    private final PasswordEncoder passwordEncoder;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+
+    public UserImportService(
+            UserRepository userRepository,
+            ObjectMapper objectMapper,
+            @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${auth.import.hashing-parallelism:0}") int hashingParallelism,
+            @Value("${auth.import.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.rowReader = objectMapper.readerFor(RegisterRequest.class);
+        // Imports hash on their own pool so they never consume login capacity.
+        this.passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        this.hashingPool = new ForkJoinPool(hashingParallelism > 0
+                ? hashingParallelism
+                : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public UserImportReport importUsers(InputStream in, Format format) throws IOException {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        Consumer<Row> collector = row -> {
+            chunk.add(row);
+            if (chunk.size() >= batchSize) {
+                run.process(chunk);
+                chunk.clear();
+            }
+        };
+        if (format == Format.CSV) {
+            readCsv(in, collector, run);
+        } else {
+            readJson(in, collector, run);
+        }
+        run.process(chunk);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        return UserImportReport.builder()
+                .received(run.received)
+                .inserted(run.inserted)
+                .failed(run.failed)
+                .errors(run.errors)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(run.received * 1000.0 / elapsedMillis)
+                .build();
+    }
+
+    /**
+     * Each row is read as a tree first, so a row that does not map to a request
+     * (an unknown role, a field of the wrong type) is rejected on its own. Only
+     * JSON that cannot be split into rows stops the import, keeping every row
+     * read before it.
+     */
+    private void readJson(InputStream in, Consumer<Row> collector, ImportRun run) throws IOException {
+        long rowNumber = 0;
+        try (JsonParser parser = rowReader.createParser(in)) {
+            // Accept either a top-level array or newline-delimited objects.
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            for (; token != null && token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                JsonNode node = rowReader.readTree(parser);
+                rowNumber++;
+                RegisterRequest request;
+                try {
+                    request = rowReader.readValue(node);
+                } catch (JsonProcessingException e) {
+                    run.received++;
+                    run.reject(rowNumber, node.path("username").textValue(), "Invalid row: " + e.getOriginalMessage());
+                    continue;
+                }
+                collector.accept(new Row(rowNumber, request));
+            }
+        } catch (StreamReadException e) {
+            run.received++;
+            run.reject(rowNumber + 1, null, "Unreadable JSON, import stopped: " + e.getOriginalMessage());
+        }
+    }
+
+    private void readCsv(InputStream in, Consumer<Row> collector, ImportRun run) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = parseCsvLine(header).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int username = columns.indexOf("username");
+        int email = columns.indexOf("email");
+        int password = columns.indexOf("password");
+        int phoneNumber = columns.indexOf("phonenumber");
+        int role = columns.indexOf("role");
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            List<String> fields = parseCsvLine(line);
+            RegisterRequest request = new RegisterRequest();
+            request.setUsername(field(fields, username));
+            request.setEmail(field(fields, email));
+            request.setPassword(field(fields, password));
+            request.setPhoneNumber(field(fields, phoneNumber));
+            String roleName = field(fields, role);
+            if (roleName != null) {
+                try {
+                    request.setRole(Role.valueOf(roleName.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    run.received++;
+                    run.reject(rowNumber, request.getUsername(), "Unknown role: " + roleName);
+                    continue;
+                }
+            }
+            collector.accept(new Row(rowNumber, request));
+        }
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record Row(long number, RegisterRequest request) {
+    }
+
+    private final class ImportRun {
+        long received;
+        long inserted;
+        long failed;
+        final List<UserImportReport.RowError> errors = new ArrayList<>();
+
+        void process(List<Row> chunk) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            received += chunk.size();
+            List<Row> valid = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                String problem = validate(row.request());
+                if (problem != null) {
+                    reject(row.number(), row.request().getUsername(), problem);
+                } else {
+                    valid.add(row);
+                }
+            }
+            if (valid.isEmpty()) {
+                return;
+            }
+            List<User> users = hash(valid);
+            try {
+                record(valid, userRepository.insertBatch(users));
+            } catch (DataAccessException e) {
+                // One bad row fails the whole batch; retry row by row to isolate it.
+                for (int i = 0; i < valid.size(); i++) {
+                    Row row = valid.get(i);
+                    try {
+                        record(List.of(row), userRepository.insertBatch(List.of(users.get(i))));
+                    } catch (DataAccessException rowFailure) {
+                        reject(row.number(), row.request().getUsername(), rootMessage(rowFailure));
+                    }
+                }
+            }
+        }
+
+        private void record(List<Row> rows, int[] counts) {
+            for (int i = 0; i < rows.size(); i++) {
+                if (counts[i] > 0) {
+                    inserted++;
+                } else {
+                    reject(rows.get(i).number(), rows.get(i).request().getUsername(),
+                            "Username, email or phone number already exists");
+                }
+            }
+        }
+
+        void reject(long rowNumber, String username, String reason) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportReport.RowError(rowNumber, username, reason));
+            }
+        }
+    }
+
+    private List<User> hash(List<Row> rows) {
+        try {
+            return hashingPool.submit(() -> rows.parallelStream()
+                    .map(row -> User.builder()
+                            .username(row.request().getUsername())
+                            .email(row.request().getEmail())
+                            .password(passwordEncoder.encode(row.request().getPassword()))
+                            .role(row.request().getRole())
+                            .phoneNumber(row.request().getPhoneNumber())
+                            .build())
+                    .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash imported passwords", e.getCause());
+        }
+    }
+
+    private static String validate(RegisterRequest request) {
+        if (isBlank(request.getUsername())) {
+            return "Missing username";
+        }
+        if (isBlank(request.getEmail())) {
+            return "Missing email";
+        }
+        if (isBlank(request.getPassword())) {
+            return "Missing password";
+        }
+        if (request.getRole() == null) {
+            return "Missing role";
+        }
+        if (request.getRole() == Role.ADMIN) {
+            return "ADMIN accounts cannot be imported";
+        }
+        if (request.getPhoneNumber() != null && request.getPhoneNumber().length() > MAX_PHONE_LENGTH) {
+            return "Phone number longer than " + MAX_PHONE_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -1,21 +1,28 @@
 package com.thekade.nopolin.auth_service.service;
 
+import com.thekade.nopolin.auth_service.dto.UserPageResponse;
 import com.thekade.nopolin.auth_service.dto.UserResponse;
 import com.thekade.nopolin.auth_service.entity.Role;
-import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.auth_service.repository.UserFilter;
 import com.thekade.nopolin.auth_service.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public interface UserService {
-    List<UserResponse> getAllUsers();
-    List<UserResponse> getUsersByRole(Role role);
+    UserPageResponse listUsers(Long after, Integer limit, Role role, Boolean active);
     void deleteUserById(Long id);
     void deactivateUser(Long id);
     void activateUser(Long id);
+    int bulkActivate(UserFilter filter);
+    int bulkDeactivate(UserFilter filter);
+    int bulkDelete(UserFilter filter);
 }
 
 @Service
@@ -23,56 +30,84 @@ public interface UserService {
 class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private UserResponse mapToDto(User user) {
-        return UserResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .phoneNumber(user.getPhoneNumber())
-                .role(user.getRole())
-                .isActive(user.isActive())
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Set<Role> NON_ADMIN_ROLES = EnumSet.complementOf(EnumSet.of(Role.ADMIN));
+    private static final int MAX_BULK_IDS = 10_000;
+
+    @Override
+    public UserPageResponse listUsers(Long after, Integer limit, Role role, Boolean active) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserResponse> rows = userRepository.findPageAfter(
+                after == null ? 0L : after,
+                role == null ? NON_ADMIN_ROLES : Set.of(role),
+                active == null ? List.of(true, false) : List.of(active),
+                Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<UserResponse> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return UserPageResponse.builder()
+                .users(page)
+                .nextCursor(hasMore ? page.get(page.size() - 1).getId() : null)
+                .estimatedTotal(userRepository.estimateUserCount())
                 .build();
     }
 
     @Override
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .filter(user -> user.getRole() != Role.ADMIN)
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Transactional
+    public void deleteUserById(Long id) {
+        requireChanged(id, bulkDelete(UserFilter.byIds(List.of(id))));
     }
 
     @Override
-    public List<UserResponse> getUsersByRole(Role role) {
-        return userRepository.findByRole(role)
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Transactional
+    public void deactivateUser(Long id) {
+        requireChanged(id, bulkDeactivate(UserFilter.byIds(List.of(id))));
     }
 
     @Override
-    public void deleteUserById(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with ID: " + id);
-        }
-        userRepository.deleteById(id);
+    @Transactional
+    public void activateUser(Long id) {
+        requireChanged(id, bulkActivate(UserFilter.byIds(List.of(id))));
     }
 
     @Override
-    public void deactivateUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
-        user.setActive(false);
-        userRepository.save(user);
+    @Transactional
+    public int bulkActivate(UserFilter filter) {
+        return publish(UsersChangedEvent.Type.ACTIVATED, userRepository.updateActive(checked(filter), true));
     }
 
     @Override
-    public void activateUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
-        user.setActive(true);
-        userRepository.save(user);
+    @Transactional
+    public int bulkDeactivate(UserFilter filter) {
+        return publish(UsersChangedEvent.Type.DEACTIVATED, userRepository.updateActive(checked(filter), false));
+    }
+
+    @Override
+    @Transactional
+    public int bulkDelete(UserFilter filter) {
+        return publish(UsersChangedEvent.Type.DELETED, userRepository.delete(checked(filter)));
+    }
+
+    private static UserFilter checked(UserFilter filter) {
+        if (filter.ids() != null && filter.ids().size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_IDS + " ids per bulk request");
+        }
+        return filter;
+    }
+
+    private int publish(UsersChangedEvent.Type type, List<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            eventPublisher.publishEvent(new UsersChangedEvent(type, userIds));
+        }
+        return userIds.size();
+    }
+
+    // Activating an already active user is a no-op, so only a missing row is an error.
+    private void requireChanged(Long id, int affected) {
+        if (affected == 0 && !userRepository.existsById(id)) {
+            throw new RuntimeException("User not found with ID: " + id);
+        }
     }
 }
\ No newline at end of file
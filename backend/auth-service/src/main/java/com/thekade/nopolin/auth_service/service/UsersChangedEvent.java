@@ -0,0 +1,18 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.util.List;
+
+/**
+ * Published once per user-state change, however many users it touched.
+ * Listeners updating in-memory state run after the surrounding transaction
+ * commits; listeners writing to the database run before it commits, in the
+ * same transaction.
+ */
+public record UsersChangedEvent(Type type, List<Long> userIds) {
+
+    public enum Type {
+        ACTIVATED,
+        DEACTIVATED,
+        DELETED
+    }
+}
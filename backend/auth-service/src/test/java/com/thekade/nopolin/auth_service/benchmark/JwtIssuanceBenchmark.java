@@ -0,0 +1,82 @@
+package com.thekade.nopolin.auth_service.benchmark;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.thekade.nopolin.auth_service.config.JwtService;
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.entity.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Compares issuing an access/refresh pair through jjwt's generic builder with
+ * {@link JwtService}'s specialised encoder. Run with the GC profiler to see
+ * the allocation rate: {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtIssuanceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        user = User.builder()
+                .id(42L)
+                .username("benchmark-user")
+                .email("bench@example.com")
+                .role(Role.CITIZEN)
+                .build();
+    }
+
+    @Benchmark
+    public int jjwtBuilder() {
+        Map<String, Object> access = new HashMap<>();
+        access.put("userId", user.getId());
+        access.put("email", user.getEmail());
+        access.put(Claims.ID, "3f2b8c1e-9d4a-4b7e-8f6a-1c2d3e4f5a6b");
+        Map<String, Object> refresh = new HashMap<>();
+        refresh.put(Claims.ID, "6b5a4f3e-2d1c-4a6f-8e7b-4a9d1e8c2b3f");
+        return jwtService.generateToken(access, user, 3_600_000).length()
+                + jwtService.generateToken(refresh, user, 3_600_000).length();
+    }
+
+    @Benchmark
+    public int compactEncoder() {
+        return jwtService.generateToken(user).length()
+                + jwtService.generateRefreshToken(user, "6b5a4f3e-2d1c-4a6f-8e7b-4a9d1e8c2b3f").length();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtIssuanceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.thekade.nopolin.auth_service.config;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import com.thekade.nopolin.security_common.JwtVerifier;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactJwtEncoderTest {
+
+    private final Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(
+            Base64.getEncoder().encodeToString(new byte[32])));
+    private final CompactJwtEncoder encoder = new CompactJwtEncoder(key);
+
+    private Claims parse(String token) {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Test
+    void jjwtParsesEveryClaim() {
+        long nowMillis = System.currentTimeMillis() / 1000 * 1000 + 999;
+        long now = nowMillis / 1000;
+        Claims claims = parse(encoder.encode("citizen", "CITIZEN", 7L, "citizen@example.com", "jti-1", nowMillis,
+                now + 60));
+
+        assertThat(claims.getSubject()).isEqualTo("citizen");
+        assertThat(claims.get("role", String.class)).isEqualTo("CITIZEN");
+        assertThat(claims.get("userId", Long.class)).isEqualTo(7L);
+        assertThat(claims.get("email", String.class)).isEqualTo("citizen@example.com");
+        assertThat(claims.getId()).isEqualTo("jti-1");
+        assertThat(claims.getIssuedAt()).isEqualTo(new Date(now * 1000));
+        assertThat(claims.get(JwtVerifier.ISSUED_AT_MILLIS_CLAIM, Long.class)).isEqualTo(nowMillis);
+        assertThat(claims.getExpiration()).isEqualTo(new Date((now + 60) * 1000));
+    }
+
+    @Test
+    void omitsNullClaimsAndEscapesStrings() {
+        long now = System.currentTimeMillis() / 1000;
+        String subject = "na\"me\\with\ncontrol, ünïcödé and 😀";
+        Claims claims = parse(encoder.encode(subject, "ADMIN", null, null, "r", now * 1000, now + 60));
+
+        assertThat(claims.getSubject()).isEqualTo(subject);
+        assertThat(claims).doesNotContainKeys("userId", "email");
+    }
+
+    @Test
+    void everyPayloadLengthEncodesCorrectly() {
+        long now = System.currentTimeMillis() / 1000;
+        StringBuilder subject = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            subject.append((char) ('a' + i % 26));
+            assertThat(parse(encoder.encode(subject.toString(), "CITIZEN", 1L, null, "j", now * 1000, now + 60))
+                    .getSubject()).isEqualTo(subject.toString());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.thekade.nopolin.auth_service.config;
+
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.security_common.InvalidTokenException;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                Base64.getEncoder().encodeToString(new byte[32]));
+        jwtService.init();
+        user = User.builder()
+                .id(7L)
+                .username("citizen")
+                .email("citizen@example.com")
+                .role(Role.CITIZEN)
+                .build();
+    }
+
+    @Test
+    void verifyTokenExposesAllClaims() {
+        VerifiedToken claims = jwtService.verifyToken(jwtService.generateToken(user));
+
+        assertThat(claims.getSubject()).isEqualTo("citizen");
+        assertThat(claims.getRole()).isEqualTo("CITIZEN");
+        assertThat(claims.getUserId()).isEqualTo(7L);
+        assertThat(claims.getEmail()).isEqualTo("citizen@example.com");
+        assertThat(claims.isExpired()).isFalse();
+        assertThat(jwtService.isTokenValidFor(claims, user)).isTrue();
+    }
+
+    @Test
+    void verifyTokenRejectsTamperedSignature() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThatThrownBy(() -> jwtService.verifyToken(tampered)).isInstanceOf(InvalidTokenException.class);
+        assertThat(jwtService.validateToken(tampered, user)).isFalse();
+    }
+}
@@ -0,0 +1,34 @@
+package com.thekade.nopolin.auth_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenFilterTest {
+
+    @Test
+    void containsEveryAddedHash() {
+        RevokedTokenFilter filter = new RevokedTokenFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(RefreshTokenService.hash("revoked-" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(RefreshTokenService.hash("revoked-" + i))).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        RevokedTokenFilter filter = new RevokedTokenFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(RefreshTokenService.hash("revoked-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(RefreshTokenService.hash("live-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
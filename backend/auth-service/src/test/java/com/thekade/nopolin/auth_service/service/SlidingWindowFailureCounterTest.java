@@ -0,0 +1,71 @@
+package com.thekade.nopolin.auth_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowFailureCounterTest {
+
+    private static final long WINDOW = 60_000;
+    private static final long BASE_LOCKOUT = 1_000;
+
+    private final SlidingWindowFailureCounter counter =
+            new SlidingWindowFailureCounter(64, 4, WINDOW, 3, BASE_LOCKOUT, 8_000);
+
+    @Test
+    void locksOutOnceThresholdIsReached() {
+        long now = 1_000_000;
+        assertThat(counter.recordFailure("alice", now)).isZero();
+        assertThat(counter.recordFailure("alice", now + 1)).isZero();
+        assertThat(counter.recordFailure("alice", now + 2)).isEqualTo(now + 2 + BASE_LOCKOUT);
+
+        assertThat(counter.lockedUntil("alice", now + 3)).isEqualTo(now + 2 + BASE_LOCKOUT);
+        assertThat(counter.lockedUntil("bob", now + 3)).isZero();
+        assertThat(counter.activeLockouts(now + 3)).extracting(SlidingWindowFailureCounter.Lockout::key)
+                .containsExactly("alice");
+    }
+
+    @Test
+    void repeatedLockoutsBackOffExponentiallyUpToTheMaximum() {
+        long now = 1_000_000;
+        counter.recordFailure("alice", now);
+        counter.recordFailure("alice", now);
+        assertThat(counter.recordFailure("alice", now) - now).isEqualTo(1_000);
+        assertThat(counter.recordFailure("alice", now) - now).isEqualTo(2_000);
+        assertThat(counter.recordFailure("alice", now) - now).isEqualTo(4_000);
+        assertThat(counter.recordFailure("alice", now) - now).isEqualTo(8_000);
+        assertThat(counter.recordFailure("alice", now) - now).isEqualTo(8_000);
+    }
+
+    @Test
+    void failuresAgeOutOfTheSlidingWindow() {
+        long now = 1_000_000;
+        counter.recordFailure("alice", now);
+        counter.recordFailure("alice", now);
+
+        assertThat(counter.recordFailure("alice", now + 2 * WINDOW)).isZero();
+    }
+
+    @Test
+    void resetClearsLockout() {
+        long now = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            counter.recordFailure("alice", now);
+        }
+        assertThat(counter.reset("alice")).isTrue();
+        assertThat(counter.lockedUntil("alice", now)).isZero();
+    }
+
+    @Test
+    void memoryStaysBoundedUnderManyKeys() {
+        long now = 1_000_000;
+        for (int i = 0; i < 10_000; i++) {
+            counter.recordFailure("user-" + i, now + i);
+        }
+        assertThat(counter.lockedUntil("user-9999", now + 10_000)).isZero();
+        for (int i = 0; i < 3; i++) {
+            counter.recordFailure("target", now + 20_000);
+        }
+        assertThat(counter.lockedUntil("target", now + 20_001)).isPositive();
+    }
+}
@@ -0,0 +1,43 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.thekade.nopolin.auth_service.service.UserCacheInvalidationChannel.Invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class UserCacheInvalidationChannelTest {
+
+    private final UserCacheInvalidationChannel channel = new UserCacheInvalidationChannel(mock(DataSource.class));
+    private final List<Invalidation> received = new ArrayList<>();
+
+    @Test
+    void failingSubscriberDoesNotStarveTheOthers() {
+        channel.subscribe(invalidation -> {
+            throw new DataAccessResourceFailureException("connection refused");
+        });
+        channel.subscribe(received::add);
+
+        channel.handle("other-node|1,2|");
+        channel.handle("other-node||citizen");
+
+        assertThat(received).containsExactly(new Invalidation(List.of(1L, 2L), null),
+                new Invalidation(List.of(), "citizen"));
+    }
+
+    @Test
+    void malformedPayloadEvictsEverything() {
+        channel.subscribe(received::add);
+
+        channel.handle("other-node|1,x|");
+
+        assertThat(received).singleElement().satisfies(invalidation -> assertThat(invalidation.isAll()).isTrue());
+    }
+}
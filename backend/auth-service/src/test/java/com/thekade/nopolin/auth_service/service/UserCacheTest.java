@@ -0,0 +1,83 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.thekade.nopolin.auth_service.entity.Role;
+import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserCache userCache = new UserCache(userRepository, mock(UserCacheInvalidationChannel.class),
+            new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+    private static User user(String passwordHash) {
+        return User.builder().id(1L).username("citizen").password(passwordHash).role(Role.CITIZEN).build();
+    }
+
+    @Test
+    void evictionDuringALoadDropsTheLoadedUser() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        when(userRepository.findByUsername("citizen"))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    changed.await(5, TimeUnit.SECONDS);
+                    return Optional.of(user("old-hash"));
+                })
+                .thenReturn(Optional.of(user("new-hash")));
+
+        CompletableFuture<Optional<User>> load = CompletableFuture.supplyAsync(
+                () -> userCache.findByUsername("citizen"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // The password changed after the stale read; evict as the change does.
+        Thread evicting = new Thread(() -> userCache.evict(1L, "citizen"));
+        evicting.start();
+        while (evicting.getState() != Thread.State.BLOCKED && evicting.getState() != Thread.State.TERMINATED) {
+            Thread.onSpinWait();
+        }
+        changed.countDown();
+        evicting.join(5_000);
+
+        // The eviction stamped the user while the load was in flight, so the load read again.
+        assertThat(load.get(5, TimeUnit.SECONDS)).map(User::getPassword).contains("new-hash");
+        assertThat(userCache.findByUsername("citizen")).map(User::getPassword).contains("new-hash");
+    }
+
+    @Test
+    void evictionByIdDuringAUsernameLoadDropsTheLoadedUser() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        when(userRepository.findByUsername("citizen"))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    changed.await(5, TimeUnit.SECONDS);
+                    return Optional.of(user("old-hash"));
+                })
+                .thenReturn(Optional.of(user("new-hash")));
+
+        CompletableFuture<Optional<User>> load = CompletableFuture.supplyAsync(
+                () -> userCache.findByUsername("citizen"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // A bulk deactivation knows only ids; its scan runs before the load has cached anything.
+        userCache.onUsersChanged(new UsersChangedEvent(UsersChangedEvent.Type.DEACTIVATED, List.of(1L)));
+        changed.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).map(User::getPassword).contains("new-hash");
+        assertThat(userCache.findByUsername("citizen")).map(User::getPassword).contains("new-hash");
+    }
+}
@@ -0,0 +1,69 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thekade.nopolin.auth_service.dto.UserImportReport;
+import com.thekade.nopolin.auth_service.entity.User;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserImportService importService = new UserImportService(userRepository, new ObjectMapper(), 4, 1, 1);
+
+    UserImportServiceTest() {
+        when(userRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<User>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    private UserImportReport importJson(String json) throws Exception {
+        return importService.importUsers(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                UserImportService.Format.JSON);
+    }
+
+    private static String row(String username, String role) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\","
+                + "\"password\":\"secret\",\"role\":\"" + role + "\"}";
+    }
+
+    @Test
+    void rejectsBadJsonRowsAndKeepsImporting() throws Exception {
+        UserImportReport report = importJson("[" + row("first", "CITIZEN") + ","
+                + row("wizard", "WIZARD") + ","
+                + "{\"username\":\"typed\",\"email\":[\"not\",\"a\",\"string\"]},"
+                + row("last", "GOV_OFFICER") + "]");
+
+        assertThat(report.getReceived()).isEqualTo(4);
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors())
+                .extracting(UserImportReport.RowError::getRow, UserImportReport.RowError::getUsername)
+                .containsExactly(tuple(2L, "wizard"), tuple(3L, "typed"));
+    }
+
+    @Test
+    void reportsRowsReadBeforeUnparseableJson() throws Exception {
+        UserImportReport report = importJson(row("first", "CITIZEN") + "\n" + row("second", "CITIZEN")
+                + "\n{\"username\": oops");
+
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement()
+                .extracting(UserImportReport.RowError::getRow).isEqualTo(3L);
+    }
+}
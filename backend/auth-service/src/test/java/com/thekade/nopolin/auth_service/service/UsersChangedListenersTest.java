@@ -0,0 +1,226 @@
+package com.thekade.nopolin.auth_service.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.thekade.nopolin.auth_service.config.JwtService;
+import com.thekade.nopolin.auth_service.repository.AccessTokenRevocationRepository;
+import com.thekade.nopolin.auth_service.repository.RefreshTokenRepository;
+import com.thekade.nopolin.auth_service.repository.UserFilter;
+import com.thekade.nopolin.auth_service.repository.UserRepository;
+import com.thekade.nopolin.security_common.AccessTokenDenylist;
+import com.thekade.nopolin.security_common.VerifiedToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the user service and the listeners of its {@link UsersChangedEvent}s
+ * against a transaction manager that only records when it commits, so the
+ * writes they make can be placed relative to the commit of the user change.
+ */
+class UsersChangedListenersTest {
+
+    private static final long USER_ID = 7L;
+
+    /** A write made by a listener, and whether the user change had committed by then. */
+    record Write(String what, boolean inTransaction, boolean afterCommit, Instant notBefore, Instant expiresAt) {
+    }
+
+    static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        volatile boolean committed;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            committed = false;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed = true;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Listeners {
+
+        final List<Write> writes = new ArrayList<>();
+
+        @Bean
+        RecordingTransactionManager transactionManager() {
+            return new RecordingTransactionManager();
+        }
+
+        @Bean
+        UserRepository userRepository() {
+            UserRepository userRepository = mock(UserRepository.class);
+            when(userRepository.updateActive(any(), eq(false))).thenReturn(List.of(USER_ID));
+            when(userRepository.delete(any(UserFilter.class))).thenReturn(List.of(USER_ID));
+            return userRepository;
+        }
+
+        @Bean
+        UserService userService(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+            return new UserServiceImpl(userRepository, eventPublisher);
+        }
+
+        @Bean
+        JwtService jwtService() {
+            JwtService jwtService = mock(JwtService.class);
+            when(jwtService.getAccessTokenLifetime()).thenReturn(Duration.ofHours(1));
+            when(jwtService.getRefreshTokenLifetime()).thenReturn(Duration.ofDays(7));
+            return jwtService;
+        }
+
+        @Bean
+        AccessTokenRevocationService accessTokenRevocationService(JwtService jwtService,
+                RecordingTransactionManager transactionManager) {
+            AccessTokenRevocationRepository revocationRepository = mock(AccessTokenRevocationRepository.class);
+            when(revocationRepository.insertUserWatermarks(any(), any(), any())).thenAnswer(invocation -> {
+                assertThat(invocation.<Collection<Long>>getArgument(0)).containsExactly(USER_ID);
+                writes.add(new Write("watermark", TransactionSynchronizationManager.isActualTransactionActive(),
+                        transactionManager.committed, invocation.getArgument(1), invocation.getArgument(2)));
+                return 1;
+            });
+            return new AccessTokenRevocationService(revocationRepository, jwtService, 1000);
+        }
+
+        @Bean
+        RefreshTokenService refreshTokenService(JwtService jwtService, RecordingTransactionManager transactionManager) {
+            RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+            when(refreshTokenRepository.revokeByUserIds(any())).thenAnswer(invocation -> {
+                assertThat(invocation.<Collection<Long>>getArgument(0)).containsExactly(USER_ID);
+                writes.add(new Write("refresh tokens", TransactionSynchronizationManager.isActualTransactionActive(),
+                        transactionManager.committed, null, null));
+                return 1;
+            });
+            return new RefreshTokenService(refreshTokenRepository, jwtService, transactionManager,
+                    new SimpleMeterRegistry(), 1000, 1000, 1000);
+        }
+    }
+
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Listeners.class);
+    private final List<Write> writes = context.getBean(Listeners.class).writes;
+    private final UserService userService = context.getBean(UserService.class);
+
+    @AfterEach
+    void close() {
+        context.close();
+    }
+
+    private static VerifiedToken tokenIssuedAt(Instant issuedAt) {
+        return VerifiedToken.builder()
+                .subject("citizen")
+                .role("CITIZEN")
+                .userId(USER_ID)
+                .tokenId("jti-" + issuedAt.toEpochMilli())
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofHours(1)))
+                .build();
+    }
+
+    private Write write(String what) {
+        return writes.stream().filter(write -> write.what().equals(what)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void deactivationRevokesEarlierAccessTokensInItsTransaction() throws SQLException {
+        VerifiedToken issuedBefore = tokenIssuedAt(Instant.now().minusSeconds(1));
+
+        userService.deactivateUser(USER_ID);
+
+        Write watermark = write("watermark");
+        assertThat(watermark.inTransaction()).isTrue();
+        assertThat(watermark.afterCommit()).isFalse();
+        AccessTokenDenylist denylist = denylistWith(watermark.notBefore(), watermark.expiresAt());
+        assertThat(denylist.isRevoked(issuedBefore)).isTrue();
+        assertThat(denylist.isRevoked(tokenIssuedAt(watermark.notBefore().plusMillis(1)))).isFalse();
+    }
+
+    @Test
+    void deletionRevokesAccessTokensBeforeItCommits() {
+        userService.deleteUserById(USER_ID);
+
+        assertThat(write("watermark").afterCommit()).isFalse();
+    }
+
+    @Test
+    void deactivationRevokesRefreshTokensInItsTransaction() {
+        userService.deactivateUser(USER_ID);
+
+        Write revoked = write("refresh tokens");
+        assertThat(revoked.inTransaction()).isTrue();
+        assertThat(revoked.afterCommit()).isFalse();
+    }
+
+    @Test
+    void activationRevokesNothing() {
+        when(context.getBean(UserRepository.class).updateActive(any(), eq(true))).thenReturn(List.of(USER_ID));
+
+        userService.activateUser(USER_ID);
+
+        assertThat(writes).isEmpty();
+    }
+
+    /** A denylist loaded from one watermark row of access_token_revocations. */
+    private static AccessTokenDenylist denylistWith(Instant notBefore, Instant expiresAt) throws SQLException {
+        ResultSet rows = mock(ResultSet.class);
+        when(rows.next()).thenReturn(true, false);
+        when(rows.getLong(1)).thenReturn(1L);
+        when(rows.getObject(2, Long.class)).thenReturn(USER_ID);
+        when(rows.getTimestamp(4)).thenReturn(Timestamp.from(notBefore));
+        when(rows.getTimestamp(5)).thenReturn(Timestamp.from(expiresAt));
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(rows);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(preparedStatement.executeQuery()).thenReturn(rows);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        AccessTokenDenylist denylist = new AccessTokenDenylist(dataSource, 16);
+        denylist.reload();
+        return denylist;
+    }
+}
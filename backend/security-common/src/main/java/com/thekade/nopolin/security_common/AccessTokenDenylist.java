@@ -0,0 +1,129 @@
+package com.thekade.nopolin.security_common;
+
+import java.sql.Timestamp;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory view of the access_token_revocations table, checked on every
+ * authenticated request. Holds revoked token ids and, per user, a watermark
+ * before which all issued tokens are invalid. Watermarks and issue times are
+ * compared in milliseconds, so a token issued right after a revocation, in the
+ * same second, stays valid; tokens without a millisecond issue time fall back
+ * to their second-precision {@code iat}.
+ *
+ * The table is polled for new rows; a periodic full reload drops entries for
+ * tokens that have expired anyway. Checks are constant-time and allocation-free.
+ *
+ * Declare it as a bean in services that accept access tokens; the poll
+ * interval is read from {@code auth.token-denylist.poll-interval} and the
+ * reload interval from {@code auth.token-denylist.reload-interval}.
+ */
+public class AccessTokenDenylist {
+
+    private static final Logger LOGGER = Logger.getLogger(AccessTokenDenylist.class.getName());
+
+    // Rows are re-read for a while after they appear, because a row with a lower id can commit
+    // after one with a higher id. Applying a row twice is harmless.
+    private static final String SELECT_NEW =
+            "SELECT id, user_id, token_id, not_before, expires_at FROM access_token_revocations "
+            + "WHERE (id > ? OR created_at > now() - interval '30 seconds') AND expires_at > now() ORDER BY id";
+    private static final String SELECT_ALL =
+            "SELECT id, user_id, token_id, not_before, expires_at FROM access_token_revocations "
+            + "WHERE expires_at > now() ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int expectedSize;
+
+    private volatile LongLongOpenHashMap revokedTokens;
+    private volatile LongLongOpenHashMap userWatermarks;
+    private long lastSeenId;
+
+    public AccessTokenDenylist(DataSource dataSource, int expectedSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.expectedSize = expectedSize;
+        this.revokedTokens = new LongLongOpenHashMap(expectedSize);
+        this.userWatermarks = new LongLongOpenHashMap(expectedSize);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return isRevoked(token.getUserId(), token.getTokenId(), token.issuedAtEpochMilli());
+    }
+
+    /**
+     * @param tokenId        the token's {@code jti}, may be null
+     * @param issuedAtMilli  the token's issue time in epoch milliseconds
+     */
+    public boolean isRevoked(Long userId, String tokenId, long issuedAtMilli) {
+        if (userId != null && issuedAtMilli < userWatermarks.get(userId, Long.MIN_VALUE)) {
+            return true;
+        }
+        return tokenId != null && revokedTokens.get(tokenKey(tokenId), 0) != 0;
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not load the access token denylist, will retry", e);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${auth.token-denylist.poll-interval:PT2S}",
+            fixedDelayString = "${auth.token-denylist.poll-interval:PT2S}")
+    public synchronized void poll() {
+        try {
+            jdbcTemplate.query(SELECT_NEW, (RowCallbackHandler) rs -> apply(
+                    rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3),
+                    rs.getTimestamp(4), rs.getTimestamp(5), revokedTokens, userWatermarks), lastSeenId);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not poll access token revocations", e);
+        }
+    }
+
+    /** Rebuilds both maps without the entries whose tokens have expired. */
+    @Scheduled(
+            initialDelayString = "${auth.token-denylist.reload-interval:PT1H}",
+            fixedDelayString = "${auth.token-denylist.reload-interval:PT1H}")
+    public synchronized void reload() {
+        LongLongOpenHashMap tokens = new LongLongOpenHashMap(expectedSize);
+        LongLongOpenHashMap watermarks = new LongLongOpenHashMap(expectedSize);
+        jdbcTemplate.query(SELECT_ALL, (RowCallbackHandler) rs -> apply(
+                rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3),
+                rs.getTimestamp(4), rs.getTimestamp(5), tokens, watermarks));
+        revokedTokens = tokens;
+        userWatermarks = watermarks;
+    }
+
+    private void apply(long id, Long userId, String tokenId, Timestamp notBefore, Timestamp expiresAt,
+            LongLongOpenHashMap tokens, LongLongOpenHashMap watermarks) {
+        if (tokenId != null) {
+            tokens.putMax(tokenKey(tokenId), expiresAt.getTime() / 1000);
+        }
+        if (userId != null && notBefore != null) {
+            // Issued in the same millisecond as the revocation: valid, which way round is unknowable.
+            watermarks.putMax(userId, notBefore.getTime());
+        }
+        lastSeenId = Math.max(lastSeenId, id);
+    }
+
+    /** 64-bit FNV-1a over the id's characters; never 0, which the map reserves. */
+    static long tokenKey(String tokenId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tokenId.length(); i++) {
+            hash ^= tokenId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,160 @@
+package com.thekade.nopolin.security_common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Identity headers the gateway adds after verifying a bearer token, signed
+ * with HMAC-SHA256 over their values, each length-prefixed, and a SHA-256
+ * digest of the bearer token. A service behind the gateway checks the
+ * signature against the token the request carries instead of parsing the JWS
+ * again. Captured headers are useless without that same token, and stop
+ * working when it expires.
+ *
+ * The gateway strips any of these headers sent by the client.
+ */
+public class IdentityHeaders {
+
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_NAME = "X-User-Name";
+    public static final String USER_ROLE = "X-User-Role";
+    public static final String TOKEN_ID = "X-Token-Id";
+    /** In epoch milliseconds, unlike {@link #EXPIRES_AT}, for the revocation watermark check. */
+    public static final String ISSUED_AT = "X-Token-Issued-At";
+    public static final String EXPIRES_AT = "X-Token-Expires-At";
+    public static final String SIGNATURE = "X-Identity-Signature";
+
+    public static final String[] ALL = {USER_ID, USER_NAME, USER_ROLE, TOKEN_ID, ISSUED_AT, EXPIRES_AT, SIGNATURE};
+
+    private static final String VERSION = "v2";
+
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    /**
+     * @param base64Secret shared by the gateway and the services, distinct from
+     *                     the JWT secret; blank disables signing and verification
+     */
+    public IdentityHeaders(String base64Secret) {
+        if (base64Secret == null || base64Secret.isBlank()) {
+            this.macs = null;
+            return;
+        }
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(base64Secret), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return macs != null;
+    }
+
+    /**
+     * Headers to forward for a verified token, in a stable order; empty when disabled.
+     *
+     * @param bearerToken the compact JWS {@code token} was verified from
+     */
+    public Map<String, String> sign(VerifiedToken token, String bearerToken) {
+        if (macs == null) {
+            return Map.of();
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(USER_ID, token.getUserId() != null ? token.getUserId().toString() : "");
+        headers.put(USER_NAME, token.getSubject() != null ? token.getSubject() : "");
+        headers.put(USER_ROLE, token.getRole() != null ? token.getRole() : "");
+        headers.put(TOKEN_ID, token.getTokenId() != null ? token.getTokenId() : "");
+        headers.put(ISSUED_AT, token.getIssuedAt() != null ? Long.toString(token.getIssuedAt().toEpochMilli()) : "");
+        headers.put(EXPIRES_AT, token.getExpiresAt() != null ? Long.toString(token.getExpiresAt().getEpochSecond()) : "");
+        headers.put(SIGNATURE, signature(headers::get, bearerToken));
+        return headers;
+    }
+
+    /**
+     * Rebuilds the token from signed headers.
+     *
+     * @param bearerToken the compact JWS of the request's {@code Authorization} header
+     * @return null when disabled, or the headers are absent, badly signed, signed for
+     *         another bearer token or expired
+     */
+    public VerifiedToken verify(Function<String, String> header, String bearerToken) {
+        String signature = macs != null && bearerToken != null ? header.apply(SIGNATURE) : null;
+        if (signature == null) {
+            return null;
+        }
+        byte[] expected = signature(header, bearerToken).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        try {
+            Instant expiresAt = epochSecond(header.apply(EXPIRES_AT));
+            if (expiresAt == null || expiresAt.isBefore(Instant.now())) {
+                return null;
+            }
+            String userId = header.apply(USER_ID);
+            return VerifiedToken.builder()
+                    .subject(emptyToNull(header.apply(USER_NAME)))
+                    .role(emptyToNull(header.apply(USER_ROLE)))
+                    .userId(userId == null || userId.isEmpty() ? null : Long.valueOf(userId))
+                    .tokenId(emptyToNull(header.apply(TOKEN_ID)))
+                    .issuedAt(epochMilli(header.apply(ISSUED_AT)))
+                    .expiresAt(expiresAt)
+                    .build();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String signature(Function<String, String> header, String bearerToken) {
+        Mac mac = macs.get();
+        update(mac, VERSION.getBytes(StandardCharsets.US_ASCII));
+        for (int i = 0; i < ALL.length - 1; i++) {
+            String value = header.apply(ALL[i]);
+            update(mac, (value != null ? value : "").getBytes(StandardCharsets.UTF_8));
+        }
+        update(mac, digests.get().digest(bearerToken.getBytes(StandardCharsets.US_ASCII)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal());
+    }
+
+    /** Length-prefixed, so no value can pass for the end of one field and the start of the next. */
+    private static void update(Mac mac, byte[] value) {
+        mac.update((byte) (value.length >>> 24));
+        mac.update((byte) (value.length >>> 16));
+        mac.update((byte) (value.length >>> 8));
+        mac.update((byte) value.length);
+        mac.update(value);
+    }
+
+    private static Instant epochSecond(String value) {
+        return value == null || value.isEmpty() ? null : Instant.ofEpochSecond(Long.parseLong(value));
+    }
+
+    private static Instant epochMilli(String value) {
+        return value == null || value.isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(value));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
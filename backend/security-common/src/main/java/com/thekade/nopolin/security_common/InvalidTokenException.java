@@ -0,0 +1,26 @@
+package com.thekade.nopolin.security_common;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link JwtVerifier} when a token cannot be trusted. The reason is
+ * safe to log or return to the caller; the cause is not.
+ */
+@Getter
+public class InvalidTokenException extends RuntimeException {
+
+    public enum Reason {
+        MISSING,
+        MALFORMED,
+        UNSUPPORTED,
+        BAD_SIGNATURE,
+        EXPIRED
+    }
+
+    private final Reason reason;
+
+    public InvalidTokenException(Reason reason, Throwable cause) {
+        super("Invalid token: " + reason, cause);
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,90 @@
+package com.thekade.nopolin.security_common;
+
+import java.security.Key;
+import java.time.Instant;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+
+/**
+ * Verifies HS256 tokens issued by auth-service. The key and parser are built
+ * once; instances are immutable and safe to share between threads.
+ */
+public class JwtVerifier {
+
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String EMAIL_CLAIM = "email";
+    /**
+     * Issue time in epoch milliseconds, alongside the standard second-precision
+     * {@code iat}, so revocation watermarks can tell tokens of the same second apart.
+     */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iatMs";
+
+    private final Key key;
+    private final JwtParser parser;
+
+    /** @param base64Secret the same Base64-encoded {@code jwt.secret} auth-service signs with */
+    public JwtVerifier(String base64Secret) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    /** The HMAC key, for services that also sign tokens with it. */
+    public Key getKey() {
+        return key;
+    }
+
+    /**
+     * Parses the token and checks its signature and expiry exactly once.
+     *
+     * @throws InvalidTokenException if the token cannot be trusted
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.MISSING, null);
+        }
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.EXPIRED, e);
+        } catch (SecurityException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.BAD_SIGNATURE, e);
+        } catch (UnsupportedJwtException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.UNSUPPORTED, e);
+        } catch (MalformedJwtException | DecodingException | IllegalArgumentException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.MALFORMED, e);
+        } catch (JwtException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.MALFORMED, e);
+        }
+        return VerifiedToken.builder()
+                .subject(claims.getSubject())
+                .role(claims.get(ROLE_CLAIM, String.class))
+                .userId(claims.get(USER_ID_CLAIM, Long.class))
+                .email(claims.get(EMAIL_CLAIM, String.class))
+                .tokenId(claims.getId())
+                .issuedAt(issuedAt(claims))
+                .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .build();
+    }
+
+    private static Instant issuedAt(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (millis != null) {
+            return Instant.ofEpochMilli(millis);
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+    }
+}
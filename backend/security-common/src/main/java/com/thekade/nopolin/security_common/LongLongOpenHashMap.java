@@ -0,0 +1,114 @@
+package com.thekade.nopolin.security_common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-addressing map from non-zero long keys to long values, built for one
+ * writer and any number of concurrent readers. Lookups never lock or allocate.
+ *
+ * The writer publishes a value before its key, so a reader that finds a key
+ * always sees its value. Growing copies into a new table that replaces the
+ * old one in a single volatile write. Entries are never removed; the owner
+ * builds a fresh map to drop them.
+ */
+final class LongLongOpenHashMap {
+
+    private static final float MAX_LOAD = 0.5f;
+
+    private static final class Table {
+        final AtomicLongArray keys;
+        final AtomicLongArray values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+    private int size;
+
+    LongLongOpenHashMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    /** @return the value for {@code key}, or {@code missing} when absent */
+    long get(long key, long missing) {
+        Table t = table;
+        for (int slot = slot(key, t.mask); ; slot = (slot + 1) & t.mask) {
+            long k = t.keys.get(slot);
+            if (k == key) {
+                return t.values.get(slot);
+            }
+            if (k == 0) {
+                return missing;
+            }
+        }
+    }
+
+    /** Stores the larger of the current and the given value. Writer thread only. */
+    void putMax(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        Table t = table;
+        int slot = slot(key, t.mask);
+        while (true) {
+            long k = t.keys.get(slot);
+            if (k == key) {
+                if (value > t.values.get(slot)) {
+                    t.values.set(slot, value);
+                }
+                return;
+            }
+            if (k == 0) {
+                break;
+            }
+            slot = (slot + 1) & t.mask;
+        }
+        if (size + 1 > (t.mask + 1) * MAX_LOAD) {
+            grow();
+            putMax(key, value);
+            return;
+        }
+        t.values.set(slot, value);
+        t.keys.set(slot, key);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        Table old = table;
+        Table bigger = new Table((old.mask + 1) * 2);
+        for (int i = 0; i <= old.mask; i++) {
+            long key = old.keys.get(i);
+            if (key != 0) {
+                int slot = slot(key, bigger.mask);
+                while (bigger.keys.get(slot) != 0) {
+                    slot = (slot + 1) & bigger.mask;
+                }
+                bigger.values.set(slot, old.values.get(i));
+                bigger.keys.set(slot, key);
+            }
+        }
+        table = bigger;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
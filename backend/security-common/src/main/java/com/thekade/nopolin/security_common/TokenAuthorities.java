@@ -0,0 +1,23 @@
+package com.thekade.nopolin.security_common;
+
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * The single mapping from token claims to Spring Security authorities, so
+ * {@code hasRole("ADMIN")} means the same thing in every service.
+ */
+public final class TokenAuthorities {
+
+    private TokenAuthorities() {
+    }
+
+    public static List<GrantedAuthority> of(VerifiedToken token) {
+        if (token.getRole() == null) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + token.getRole()));
+    }
+}
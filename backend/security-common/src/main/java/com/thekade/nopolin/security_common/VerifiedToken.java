@@ -0,0 +1,34 @@
+package com.thekade.nopolin.security_common;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Claims of a token whose signature and expiry {@link JwtVerifier} has
+ * already checked. Refresh tokens have no {@code userId} or {@code email}.
+ */
+@Value
+@Builder
+public class VerifiedToken {
+
+    String subject;
+    /** Role name without the {@code ROLE_} prefix, e.g. {@code CITIZEN}. */
+    String role;
+    Long userId;
+    String email;
+    /** The {@code jti} claim, used to revoke a single token. */
+    String tokenId;
+    /** Millisecond precision when the token carries {@link JwtVerifier#ISSUED_AT_MILLIS_CLAIM}. */
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+
+    public long issuedAtEpochMilli() {
+        return issuedAt != null ? issuedAt.toEpochMilli() : Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,76 @@
+package com.thekade.nopolin.security_common;
+
+import java.util.Base64;
+import java.util.Date;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtVerifierTest {
+
+    private static final byte[] KEY = new byte[32];
+
+    private final JwtVerifier verifier = new JwtVerifier(Base64.getEncoder().encodeToString(KEY));
+
+    private static String token(long expiresInMillis, byte[] key) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("citizen")
+                .claim("role", "CITIZEN")
+                .claim("userId", 7)
+                .claim("email", "citizen@example.com")
+                .setId("jti-1")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiresInMillis))
+                .signWith(new SecretKeySpec(key, "HmacSHA256"), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    void exposesAllClaims() {
+        VerifiedToken token = verifier.verify(token(60_000, KEY));
+
+        assertThat(token.getSubject()).isEqualTo("citizen");
+        assertThat(token.getRole()).isEqualTo("CITIZEN");
+        assertThat(token.getUserId()).isEqualTo(7L);
+        assertThat(token.getEmail()).isEqualTo("citizen@example.com");
+        assertThat(token.getTokenId()).isEqualTo("jti-1");
+        assertThat(TokenAuthorities.of(token)).extracting(Object::toString).containsExactly("ROLE_CITIZEN");
+    }
+
+    @Test
+    void prefersTheMillisecondIssueTime() {
+        String token = Jwts.builder()
+                .setSubject("citizen")
+                .setIssuedAt(new Date(1_700_000_000_000L))
+                .claim(JwtVerifier.ISSUED_AT_MILLIS_CLAIM, 1_700_000_000_456L)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(new SecretKeySpec(KEY, "HmacSHA256"), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(verifier.verify(token).issuedAtEpochMilli()).isEqualTo(1_700_000_000_456L);
+        assertThat(verifier.verify(token(60_000, KEY)).getIssuedAt().getNano() % 1_000_000_000).isZero();
+    }
+
+    @Test
+    void reportsWhyATokenIsRejected() {
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+
+        assertThatThrownBy(() -> verifier.verify(token(-60_000, KEY)))
+                .extracting("reason").isEqualTo(InvalidTokenException.Reason.EXPIRED);
+        assertThatThrownBy(() -> verifier.verify(token(60_000, otherKey)))
+                .extracting("reason").isEqualTo(InvalidTokenException.Reason.BAD_SIGNATURE);
+        assertThatThrownBy(() -> verifier.verify("not-a-token"))
+                .extracting("reason").isEqualTo(InvalidTokenException.Reason.MALFORMED);
+        assertThatThrownBy(() -> verifier.verify(""))
+                .extracting("reason").isEqualTo(InvalidTokenException.Reason.MISSING);
+    }
+}
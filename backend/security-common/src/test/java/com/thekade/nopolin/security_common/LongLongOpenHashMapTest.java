@@ -0,0 +1,37 @@
+package com.thekade.nopolin.security_common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongOpenHashMapTest {
+
+    @Test
+    void keepsTheLargestValuePerKey() {
+        LongLongOpenHashMap map = new LongLongOpenHashMap(4);
+        map.putMax(42, 100);
+        map.putMax(42, 50);
+        assertThat(map.get(42, -1)).isEqualTo(100);
+        map.putMax(42, 200);
+        assertThat(map.get(42, -1)).isEqualTo(200);
+        assertThat(map.get(7, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LongLongOpenHashMap map = new LongLongOpenHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.putMax(key, key * 10);
+        }
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key, -1)).isEqualTo(key * 10);
+        }
+    }
+
+    @Test
+    void tokenKeysAreNeverZero() {
+        assertThat(AccessTokenDenylist.tokenKey("")).isNotZero();
+        assertThat(AccessTokenDenylist.tokenKey("3f2b8c1e-9d4a-4b7e-8f6a-1c2d3e4f5a6b")).isNotZero();
+    }
+}